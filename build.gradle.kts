@@ -12,6 +12,7 @@ plugins {
     `jacoco`                                                    // For code coverage reports
     id("com.gradleup.shadow") version "8.3.7"                   // Bundles dependencies into a single JAR
     id("com.diffplug.spotless") version "6.25.0"                // Code formatting and style checking
+    id("me.champeau.jmh") version "0.7.2"                       // JMH benchmarks in src/jmh/java
 }
 
 /////////////////////////
@@ -193,6 +194,20 @@ afterEvaluate {
     tasks.findByName("generateMetadataFileForMavenPublication")?.dependsOn("plainJavadocJar")
 }
 
+/////////////////////////
+// Benchmarks          //
+/////////////////////////
+
+// Run with ./gradlew jmh, select benchmarks with -PjmhIncludes=<regexp>
+jmh {
+    jmhVersion.set("1.37")
+    jvmArgs.addAll("-Djava.awt.headless=true", "-Xmx8g")
+    resultFormat.set("JSON")
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
+}
+
 /////////////////////////
 // Code formatting     //
 /////////////////////////
@@ -0,0 +1,43 @@
+package fr.inria.corese.gui.query;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Syntax coloring of the whole text of the SPARQL editor */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EditorBenchmark {
+
+    // number of lines of the query
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    SparqlQueryEditor editor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        editor = new SparqlQueryEditor();
+        editor.setQueryText(Fixtures.query(size));
+    }
+
+    @Benchmark
+    public void search() {
+        editor.search();
+    }
+}
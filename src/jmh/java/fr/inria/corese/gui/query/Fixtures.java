@@ -0,0 +1,88 @@
+package fr.inria.corese.gui.query;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+
+/**
+ * Generated graphs and results for the benchmarks. Each resource has a type, a number, a date, a
+ * language tagged label and a link to another resource, hence a graph of size resources has 5 *
+ * size triples and the SELECT query returns size rows.
+ */
+public class Fixtures {
+
+    static final String NS = "http://example.org/bench/";
+    static final String SELECT =
+            "prefix ex: <"
+                    + NS
+                    + ">\n"
+                    + "select * where { ?s a ?t ; ex:value ?v ; ex:date ?d ; ex:label ?l ;"
+                    + " ex:link ?o }";
+    static final String TRIPLES =
+            "ex:s%d a ex:C%d ; ex:value %d ; ex:date \"%d-%02d-%02d\"^^xsd:date ;"
+                    + " ex:label \"label %d\"@en ; ex:link ex:s%d .\n";
+
+    private Fixtures() {}
+
+    /** Graph with size resources, parsed from a generated Turtle file */
+    static Graph graph(int size) throws IOException, LoadException {
+        Path path = Files.createTempFile("corese-bench", ".ttl");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                out.write("@prefix ex: <" + NS + "> .\n");
+                out.write("@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n");
+                for (int i = 0; i < size; i++) {
+                    out.write(
+                            String.format(
+                                    TRIPLES,
+                                    i,
+                                    i % 10,
+                                    (i * 7919) % size,
+                                    1900 + i % 120,
+                                    1 + i % 12,
+                                    1 + i % 28,
+                                    i,
+                                    (i * 31) % size));
+                }
+            }
+            Graph g = Graph.create();
+            Load.create(g).parse(path.toString());
+            return g;
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /** One row per resource */
+    static Mappings mappings(Graph g) throws EngineException {
+        return QueryProcess.create(g).query(SELECT);
+    }
+
+    /** SPARQL query text of size lines */
+    static String query(int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("prefix ex: <").append(NS).append(">\n");
+        sb.append("select ?s (count(?o0) as ?c) where {\n");
+        for (int i = 0; i < size; i++) {
+            if (i % 10 == 0) {
+                sb.append("  # comment ").append(i).append('\n');
+            } else {
+                sb.append(
+                        String.format(
+                                "  ?s ex:p%d ?o%d . filter (regex(str(?o%d), \"v%d\"))%n",
+                                i, i, i, i));
+            }
+        }
+        sb.append("} group by ?s order by desc(?c)\n");
+        return sb.toString();
+    }
+}
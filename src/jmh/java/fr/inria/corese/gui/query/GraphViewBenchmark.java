@@ -0,0 +1,55 @@
+package fr.inria.corese.gui.query;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graphstream.graph.implementations.MultiGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.sparql.triple.parser.NSManager;
+
+/** GraphStream graph built from a Corese graph, in full and with level of detail clusters */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GraphViewBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    MyJPanelQuery panel;
+    Graph graph;
+    NSManager nsm;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        graph = Fixtures.graph(size);
+        nsm = NSManager.create();
+        nsm.definePrefix("ex", Fixtures.NS);
+        panel = new MyJPanelQuery();
+    }
+
+    @Benchmark
+    public MultiGraph create() {
+        return panel.create(graph, nsm);
+    }
+
+    @Benchmark
+    public MultiGraph clustered() {
+        return new ClusteredGraph(panel, graph, nsm).create();
+    }
+}
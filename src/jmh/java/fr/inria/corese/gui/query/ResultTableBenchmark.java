@@ -0,0 +1,90 @@
+package fr.inria.corese.gui.query;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.table.TableModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.kgram.core.Mapping;
+import fr.inria.corese.core.kgram.core.Mappings;
+
+/** Result table of a SELECT query: model creation, first screen, sort and cell formatting */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultTableBenchmark {
+
+    // rows formatted by the first paint of the table
+    static final int VISIBLE = 50;
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    MyJPanelQuery panel;
+    Mappings map;
+    MappingsTableModel model;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        map = Fixtures.mappings(Fixtures.graph(size));
+        panel = new MyJPanelQuery();
+        panel.fillTable(map);
+        model = (MappingsTableModel) panel.getTable();
+    }
+
+    /** fillTable and the cells of the first screen */
+    @Benchmark
+    public void fillTable(Blackhole bh) {
+        panel.fillTable(map);
+        TableModel table = panel.getTable();
+        for (int i = 0; i < Math.min(VISIBLE, table.getRowCount()); i++) {
+            for (int j = 0; j < table.getColumnCount(); j++) {
+                bh.consume(table.getValueAt(i, j));
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] sortNumber() {
+        return MappingsSorter.sort(model, model.findColumn("?v"), true);
+    }
+
+    @Benchmark
+    public int[] sortDate() {
+        return MappingsSorter.sort(model, model.findColumn("?d"), true);
+    }
+
+    @Benchmark
+    public int[] sortLiteral() {
+        return MappingsSorter.sort(model, model.findColumn("?l"), false);
+    }
+
+    /** pretty and prettyLiteral on every cell */
+    @Benchmark
+    public void pretty(Blackhole bh) {
+        for (Mapping m : map) {
+            for (Node node : m.getNodes()) {
+                if (node != null) {
+                    bh.consume(panel.pretty(node.getValue()));
+                }
+            }
+        }
+    }
+}
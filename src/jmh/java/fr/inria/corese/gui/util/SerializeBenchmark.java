@@ -0,0 +1,81 @@
+package fr.inria.corese.gui.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+
+/**
+ * Graph export of File > Save graph: TripleWriter streams the triples to a stream that only
+ * counts bytes, so that the benchmark measures serialization and not the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializeBenchmark {
+
+    static final String TRIPLES =
+            "<http://example.org/bench/s%d> <http://example.org/bench/p%d>"
+                    + " \"value %d\" , <http://example.org/bench/s%d> .\n";
+
+    // number of resources, two triples each
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    @Param({"NTRIPLES", "NQUADS", "TURTLE"})
+    String syntax;
+
+    Graph graph;
+    TripleWriter.Syntax sx;
+
+    /** Discard bytes, count them so that the writes are not dead code */
+    static class CountingStream extends OutputStream {
+        long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format(TRIPLES, i, i % 20, i, (i * 31) % size));
+        }
+        graph = Graph.create();
+        Load.create(graph).loadString(sb.toString(), Load.format.TURTLE_FORMAT);
+        sx = TripleWriter.Syntax.valueOf(syntax);
+    }
+
+    @Benchmark
+    public long saveGraph() throws IOException {
+        CountingStream out = new CountingStream();
+        new TripleWriter(out, sx).write(graph, null);
+        return out.count;
+    }
+}
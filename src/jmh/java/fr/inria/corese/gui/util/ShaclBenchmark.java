@@ -0,0 +1,86 @@
+package fr.inria.corese.gui.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+
+/**
+ * Scaling of the complete SHACL validation of the SHACL editor with the number of threads, 0 is
+ * the sequential Shacl evaluation. The graph has size resources of 10 classes, one shape per
+ * class, and one resource out of two violates the sh:maxInclusive constraint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShaclBenchmark {
+
+    static final String NS = "http://example.org/bench/";
+    static final int CLASSES = 10;
+    static final String TRIPLES =
+            "ex:s%d a ex:C%d ; ex:value %d ; ex:label \"label %d\"@en ; ex:link ex:s%d .\n";
+    static final String SHAPE =
+            "ex:S%d a sh:NodeShape ; sh:targetClass ex:C%d ;\n"
+                    + "  sh:property [ sh:path ex:value ; sh:datatype xsd:integer ;"
+                    + " sh:maxInclusive %d ; sh:maxCount 1 ] ;\n"
+                    + "  sh:property [ sh:path ex:label ; sh:datatype rdf:langString ;"
+                    + " sh:minCount 1 ] ;\n"
+                    + "  sh:property [ sh:path ex:link ; sh:nodeKind sh:IRI ] .\n";
+    static final String PREFIX =
+            "@prefix ex: <"
+                    + NS
+                    + "> .\n"
+                    + "@prefix sh: <http://www.w3.org/ns/shacl#> .\n"
+                    + "@prefix rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> .\n"
+                    + "@prefix xsd: <http://www.w3.org/2001/XMLSchema#> .\n";
+
+    // number of resources
+    @Param({"10000", "100000"})
+    int size;
+
+    @Param({"0", "1", "2", "4", "8"})
+    int threads;
+
+    Graph graph;
+    String shapes;
+    ShaclValidator validator;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        StringBuilder sb = new StringBuilder(PREFIX);
+        for (int i = 0; i < size; i++) {
+            sb.append(String.format(TRIPLES, i, i % CLASSES, i, i, (i * 31) % size));
+        }
+        graph = Graph.create();
+        Load.create(graph).loadString(sb.toString(), Load.format.TURTLE_FORMAT);
+        StringBuilder sh = new StringBuilder(PREFIX);
+        for (int i = 0; i < CLASSES; i++) {
+            sh.append(String.format(SHAPE, i, i, size / 2));
+        }
+        shapes = sh.toString();
+        validator = new ShaclValidator();
+        validator.setParallelism(threads);
+    }
+
+    @Benchmark
+    public int validate() throws Exception {
+        // complete validation, shapes are parsed once and cached
+        return validator.validate(graph, shapes, false, (count, total) -> true).size();
+    }
+}
@@ -0,0 +1,216 @@
+package fr.inria.corese.gui.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.load.QueryLoad;
+import fr.inria.corese.core.print.ResultFormat;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.core.sparql.triple.parser.Access;
+import fr.inria.corese.core.workflow.Data;
+import fr.inria.corese.core.workflow.SemanticWorkflow;
+import fr.inria.corese.core.workflow.WorkflowParser;
+import fr.inria.corese.gui.query.GraphEngine;
+import fr.inria.corese.gui.query.QueryExec;
+
+/**
+ * Headless execution of the command line: -batch runs the options of the GUI (-init, -param,
+ * -load, -wf, -query) without creating any window and writes the results into files of the -out
+ * directory (default current directory), named after the query or workflow file with a -2, -3...
+ * suffix when several files have the same name. -format sets the format of SELECT/ASK results
+ * (default json), -graphformat the format of CONSTRUCT/DESCRIBE results (default turtle). The
+ * exit status is 1 when a file, the workflow or a query fails, 2 on invalid arguments.
+ *
+ * <p>java -jar corese-gui.jar -batch -load data.ttl -query q1.rq -query q2.rq -out res -format
+ * csv
+ */
+public class BatchRunner {
+
+    private static final Logger logger = LogManager.getLogger(BatchRunner.class.getName());
+
+    static final Map<String, ResultFormat.format> FORMATS =
+            Map.ofEntries(
+                    Map.entry("xml", ResultFormat.format.XML_FORMAT),
+                    Map.entry("json", ResultFormat.format.JSON_FORMAT),
+                    Map.entry("csv", ResultFormat.format.CSV_FORMAT),
+                    Map.entry("tsv", ResultFormat.format.TSV_FORMAT),
+                    Map.entry("markdown", ResultFormat.format.MARKDOWN_FORMAT),
+                    Map.entry("turtle", ResultFormat.format.TURTLE_FORMAT),
+                    Map.entry("trig", ResultFormat.format.TRIG_FORMAT),
+                    Map.entry("jsonld", ResultFormat.format.JSONLD_FORMAT),
+                    Map.entry("rdfxml", ResultFormat.format.RDF_XML_FORMAT),
+                    Map.entry("nt", ResultFormat.format.NTRIPLES_FORMAT),
+                    Map.entry("nq", ResultFormat.format.NQUADS_FORMAT));
+
+    static final Map<ResultFormat.format, String> EXTENSIONS =
+            Map.ofEntries(
+                    Map.entry(ResultFormat.format.XML_FORMAT, ".srx"),
+                    Map.entry(ResultFormat.format.JSON_FORMAT, ".srj"),
+                    Map.entry(ResultFormat.format.CSV_FORMAT, ".csv"),
+                    Map.entry(ResultFormat.format.TSV_FORMAT, ".tsv"),
+                    Map.entry(ResultFormat.format.MARKDOWN_FORMAT, ".md"),
+                    Map.entry(ResultFormat.format.TURTLE_FORMAT, ".ttl"),
+                    Map.entry(ResultFormat.format.TRIG_FORMAT, ".trig"),
+                    Map.entry(ResultFormat.format.JSONLD_FORMAT, ".jsonld"),
+                    Map.entry(ResultFormat.format.RDF_XML_FORMAT, ".rdf"),
+                    Map.entry(ResultFormat.format.NTRIPLES_FORMAT, ".nt"),
+                    Map.entry(ResultFormat.format.NQUADS_FORMAT, ".nq"));
+
+    private final Command cmd;
+    private final Path out;
+    private final ResultFormat.format selectFormat;
+    private final ResultFormat.format graphFormat;
+    private GraphEngine engine;
+    // result file names already written, in lower case for case insensitive file systems
+    private final Set<String> names = new HashSet<>();
+
+    BatchRunner(Command cmd) {
+        this.cmd = cmd;
+        this.out = Paths.get(cmd.getOrDefault(Command.OUT, "."));
+        this.selectFormat = format(cmd.getOrDefault(Command.FORMAT, "json"));
+        this.graphFormat = format(cmd.getOrDefault(Command.GRAPH_FORMAT, "turtle"));
+    }
+
+    public static boolean isBatch(String[] args) {
+        return Arrays.asList(args).contains(Command.BATCH);
+    }
+
+    /** Run the command line without GUI, return the exit status */
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        // same access level as the GUI
+        Access.setMode(Access.Mode.GUI);
+        try {
+            return new BatchRunner(new Command(args).init()).process();
+        } catch (IllegalArgumentException ex) {
+            logger.error(ex.getMessage());
+            return 2;
+        }
+    }
+
+    int process() {
+        int status = 0;
+        long time = System.currentTimeMillis();
+        try {
+            Files.createDirectories(out);
+            engine = GraphEngine.create();
+            // -load is done after the other options, e.g. -parallel, to report its failures
+            String load = cmd.remove(Command.LOAD);
+            // -init, -param and other options
+            engine.init(cmd);
+            if (load != null) {
+                List<String> failures = engine.loadDirs(load);
+                if (!failures.isEmpty()) {
+                    logger.error("Load failed: " + String.join(", ", failures));
+                    status = 1;
+                }
+            }
+            logger.info(String.format("Graph: %,d triples", engine.getGraph().size()));
+            String wf = cmd.get(Command.WORKFLOW);
+            if (wf != null) {
+                workflow(wf);
+            }
+            for (String path : cmd.getQueries()) {
+                try {
+                    query(path);
+                } catch (EngineException | LoadException ex) {
+                    logger.error(path + ": " + ex.getMessage());
+                    status = 1;
+                }
+            }
+        } catch (IOException | EngineException | LoadException ex) {
+            logger.error(ex.getMessage());
+            status = 1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            status = 1;
+        } finally {
+            if (engine != null) {
+                engine.finish();
+            }
+        }
+        logger.info(
+                String.format(
+                        "Batch done in %.3f s", (System.currentTimeMillis() - time) / 1000.0));
+        return status;
+    }
+
+    void workflow(String path) throws LoadException, EngineException, IOException {
+        WorkflowParser parser = new WorkflowParser();
+        parser.parse(path);
+        SemanticWorkflow wp = parser.getWorkflowProcess();
+        Data res = wp.process(new Data(engine.getGraph()));
+        if (res.getMappings() != null) {
+            write(path, res.getMappings());
+        } else {
+            logger.info(res.toString());
+        }
+    }
+
+    void query(String path) throws LoadException, EngineException, IOException {
+        String query = QueryLoad.create().readWE(path);
+        long time = System.currentTimeMillis();
+        Mappings map = QueryExec.create(engine).SPARQLQuery(query);
+        logger.info(
+                String.format(
+                        "%s: %,d results in %.3f s",
+                        path, map.size(), (System.currentTimeMillis() - time) / 1000.0));
+        write(path, map);
+    }
+
+    /** Write result in out directory, file name is the name of the query or workflow */
+    void write(String path, Mappings map) throws IOException {
+        boolean graph = map.getGraph() instanceof Graph;
+        ResultFormat.format format = graph ? graphFormat : selectFormat;
+        ResultFormat ft = ResultFormat.create(map);
+        ft.setSelectFormat(selectFormat);
+        ft.setConstructFormat(graphFormat);
+        Path file = out.resolve(uniqueName(path) + EXTENSIONS.get(format));
+        Files.writeString(file, ft.toString(), StandardCharsets.UTF_8);
+        logger.info("Result: " + file);
+    }
+
+    /** Name of the query or workflow, suffixed by -2, -3... when it is already used */
+    String uniqueName(String path) {
+        String name = name(path);
+        String res = name;
+        for (int i = 2; !names.add(res.toLowerCase(Locale.ROOT)); i++) {
+            res = name + "-" + i;
+        }
+        if (!res.equals(name)) {
+            logger.warn(path + ": " + name + " already used, result named " + res);
+        }
+        return res;
+    }
+
+    static String name(String path) {
+        String name = new File(path).getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    static ResultFormat.format format(String name) {
+        ResultFormat.format format = FORMATS.get(name.toLowerCase(Locale.ROOT));
+        if (format == null) {
+            throw new IllegalArgumentException(
+                    "Unknown format: " + name + ", expected one of " + FORMATS.keySet());
+        }
+        return format;
+    }
+}
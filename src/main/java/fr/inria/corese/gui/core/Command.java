@@ -3,7 +3,9 @@ package fr.inria.corese.gui.core;
 import static fr.inria.corese.core.util.Property.Value.ACCESS_LEVEL;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,9 +38,17 @@ public class Command extends HashMap<String, String> {
     public static final String LOAD_QUERY = "-query";
     public static final String LOAD_DEFAULT_GRAPH = "-dg";
     public static final String NODE_AS_DATATYPE = "-dt";
+    public static final String PARALLEL_LOAD = "-parallel";
+    // headless mode, see BatchRunner
+    public static final String BATCH = "-batch";
+    public static final String OUT = "-out";
+    public static final String FORMAT = "-format";
+    public static final String GRAPH_FORMAT = "-graphformat";
 
     String[] args;
     private String query;
+    // every -query, the GUI opens the last one, batch mode runs them all
+    private final List<String> queries = new ArrayList<>();
 
     Command(String[] args) {
         this.args = args;
@@ -91,6 +101,13 @@ public class Command extends HashMap<String, String> {
 
                 case LOAD_QUERY:
                     setQuery(args[i++]);
+                    queries.add(getQuery());
+                    break;
+
+                case OUT:
+                case FORMAT:
+                case GRAPH_FORMAT:
+                    put(str, args[i++]);
                     break;
 
                 case RDF_STAR:
@@ -114,6 +131,10 @@ public class Command extends HashMap<String, String> {
         this.query = query;
     }
 
+    public List<String> getQueries() {
+        return queries;
+    }
+
     void init(String path) {
         try {
             Property.load(path);
@@ -0,0 +1,159 @@
+package fr.inria.corese.gui.core;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Watch loaded files with a WatchService on their directories. Changes are collected until no
+ * file was written during corese.gui.watch.delay ms (default 500), then the callback is called
+ * on the Event Dispatch Thread with the files that changed. Editors write a file in several
+ * steps, the delay merges them into one reload.
+ */
+public class DatasetWatcher {
+
+    private static final Logger logger = LogManager.getLogger(DatasetWatcher.class.getName());
+
+    private final Consumer<Set<String>> callback;
+    private final Timer timer;
+    private WatchService service;
+    private Thread thread;
+    // directory -> watched files of the directory
+    private final Map<Path, Set<Path>> watched = new HashMap<>();
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    // changed files, accessed on the EDT
+    private final Set<String> changed = new LinkedHashSet<>();
+
+    public DatasetWatcher(Consumer<Set<String>> callback) {
+        this.callback = callback;
+        this.timer = new Timer(GuiOptions.intValue("watch.delay", 500), e -> fire());
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Watch these files, other files are forgotten. When already watching, only directories
+     * added or removed are registered or cancelled, changes not yet reported are kept.
+     */
+    public synchronized void watch(Collection<String> files) throws IOException {
+        Map<Path, Set<Path>> next = new HashMap<>();
+        for (String file : files) {
+            Path path = Paths.get(file).toAbsolutePath();
+            Path dir = path.getParent();
+            if (dir != null) {
+                next.computeIfAbsent(dir, d -> new LinkedHashSet<>()).add(path);
+            }
+        }
+        if (service == null) {
+            service = FileSystems.getDefault().newWatchService();
+            WatchService ws = service;
+            thread = new Thread(() -> poll(ws), "corese-watch");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        keys.entrySet()
+                .removeIf(
+                        entry -> {
+                            if (next.containsKey(entry.getValue())) {
+                                return false;
+                            }
+                            entry.getKey().cancel();
+                            return true;
+                        });
+        for (Path dir : next.keySet()) {
+            if (!watched.containsKey(dir)) {
+                keys.put(dir.register(service, ENTRY_CREATE, ENTRY_MODIFY), dir);
+            }
+        }
+        watched.clear();
+        watched.putAll(next);
+        logger.info("Watch " + files.size() + " file(s)");
+    }
+
+    public synchronized void stop() {
+        if (service != null) {
+            try {
+                // poll() ends with ClosedWatchServiceException
+                service.close();
+            } catch (IOException ex) {
+                logger.warn(ex);
+            }
+            service = null;
+            thread = null;
+        }
+        watched.clear();
+        keys.clear();
+        timer.stop();
+        changed.clear();
+    }
+
+    public synchronized boolean isWatching() {
+        return service != null;
+    }
+
+    void poll(WatchService ws) {
+        try {
+            while (true) {
+                WatchKey key = ws.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() != OVERFLOW) {
+                        changed(key, (Path) event.context());
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException ex) {
+            // stop
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    synchronized void changed(WatchKey key, Path name) {
+        Path dir = keys.get(key);
+        if (dir == null) {
+            return;
+        }
+        Path path = dir.resolve(name);
+        Set<Path> files = watched.get(dir);
+        if (files != null && files.contains(path)) {
+            SwingUtilities.invokeLater(
+                    () -> {
+                        changed.add(path.toString());
+                        // restart the delay at each write
+                        timer.restart();
+                    });
+        }
+    }
+
+    void fire() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Set<String> files = new LinkedHashSet<>(changed);
+        changed.clear();
+        callback.accept(files);
+    }
+}
@@ -1,5 +1,7 @@
 package fr.inria.corese.gui.core;
 
+import java.util.concurrent.locks.Lock;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -31,6 +33,9 @@ public class Entailment extends Thread {
 
     @Override
     public void run() {
+        // inferences are written with the lock loads take
+        Lock lock = engine.writeLock();
+        lock.lock();
         try {
             if (getPath() == null) {
                 engine.setOWLRL(owl, trace);
@@ -48,6 +53,8 @@ public class Entailment extends Thread {
             MainFrame.getSingleton().focusMessagePanel();
         } catch (LoadException ex) {
             logger.error(ex);
+        } finally {
+            lock.unlock();
         }
     }
 
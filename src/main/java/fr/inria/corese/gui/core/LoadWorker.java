@@ -0,0 +1,227 @@
+package fr.inria.corese.gui.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.gui.query.GraphEngine;
+
+/**
+ * Load a list of files into a GraphEngine outside the Event Dispatch Thread. Progress (triples,
+ * triples/sec, bytes read) is reported in the System tab. Stop ends the load after the file
+ * being parsed, remaining files are skipped. Files are loaded with the write lock of the graph,
+ * queries wait for them.
+ */
+public class LoadWorker extends SwingWorker<List<String>, String> {
+
+    private static final Logger logger = LogManager.getLogger(LoadWorker.class.getName());
+    static final String NL = System.getProperty("line.separator");
+    // delay between two progress reports while a file is parsed
+    static final int PROGRESS_DELAY = 2000;
+
+    private final MainFrame frame;
+    private final GraphEngine engine;
+    private final List<String> paths;
+    private final List<String> loaded;
+    private final Timer timer;
+    private volatile long start;
+    private volatile long bytes = 0;
+    // set by stop, checked between files: the worker is never interrupted while parsing
+    private volatile boolean stopped = false;
+    private int lastSize = 0;
+    private long lastTime = 0;
+
+    LoadWorker(MainFrame frame, GraphEngine engine, List<String> paths) {
+        this.frame = frame;
+        this.engine = engine;
+        this.paths = new ArrayList<>(paths);
+        this.loaded = new ArrayList<>();
+        this.timer = new Timer(PROGRESS_DELAY, e -> progress());
+    }
+
+    @Override
+    protected List<String> doInBackground() {
+        start = System.currentTimeMillis();
+        lastTime = start;
+        lastSize = size();
+        if (isParallel()) {
+            loadParallel();
+            return loaded;
+        }
+        for (String path : paths) {
+            if (isStopped()) {
+                break;
+            }
+            publish("Loading: " + path + NL);
+            long d1 = System.currentTimeMillis();
+            int size = size();
+            Lock lock = engine.writeLock();
+            lock.lock();
+            try {
+                load(path);
+                loaded.add(path);
+            } catch (EngineException | LoadException | IOException e) {
+                logger.error(e);
+                publish(e.toString() + NL);
+            } finally {
+                lock.unlock();
+            }
+            long d2 = System.currentTimeMillis();
+            long length = new File(path).length();
+            bytes += length;
+            int triples = size() - size;
+            publish(
+                    String.format(
+                            "Loaded %,d triples, %s in %.3f s (%s triples/s)%s",
+                            triples,
+                            bytes(length),
+                            (d2 - d1) / 1000.0,
+                            rate(triples, d2 - d1),
+                            NL));
+        }
+        return loaded;
+    }
+
+    boolean isParallel() {
+        return engine.isParallelLoad() && paths.size() > 1;
+    }
+
+    /** Files are parsed concurrently in staging graphs and merged in list order */
+    void loadParallel() {
+        publish(String.format("Parallel load of %s files%s", paths.size(), NL));
+        try {
+            engine.loadParallel(
+                    paths,
+                    (path, error) -> {
+                        long length = new File(path).length();
+                        bytes += length;
+                        if (error == null) {
+                            loaded.add(path);
+                            publish(String.format("Loaded: %s, %s%s", path, bytes(length), NL));
+                        } else {
+                            publish(String.format("Error: %s %s%s", path, error, NL));
+                        }
+                    },
+                    this::isStopped);
+        } catch (EngineException | LoadException e) {
+            logger.error(e);
+            publish(e.toString() + NL);
+        } catch (InterruptedException e) {
+            // cancelled
+        }
+    }
+
+    /** Parse one file, may be overloaded to change the way files are loaded */
+    void load(String path) throws EngineException, LoadException, IOException {
+        engine.load(path);
+    }
+
+    /** Called by the timer on the EDT while files are parsed */
+    void progress() {
+        if (start == 0 || isDone()) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        int size = size();
+        frame.appendMsg(
+                String.format(
+                        "... %,d triples, %s read, %s triples/s%s",
+                        size,
+                        bytes(bytes),
+                        rate(size - lastSize, time - lastTime),
+                        NL));
+        lastSize = size;
+        lastTime = time;
+    }
+
+    @Override
+    protected void process(List<String> chunks) {
+        for (String msg : chunks) {
+            frame.appendMsg(msg);
+        }
+    }
+
+    @Override
+    protected void done() {
+        timer.stop();
+        frame.appendMsg(frame.getMyCapturer().getContent());
+        long time = start == 0 ? 0 : System.currentTimeMillis() - start;
+        if (isStopped()) {
+            frame.appendMsg(
+                    String.format(
+                            "%nLoad cancelled: %s file(s) loaded out of %s%n",
+                            loaded.size(), paths.size()));
+        } else {
+            frame.appendMsg(
+                    String.format(
+                            "%nLoading is done: %,d triples, %s in %.3f s%n",
+                            size(), bytes(bytes), time / 1000.0));
+        }
+        logger.info("Load time: " + time / 1000.0);
+        frame.loadDone(this);
+    }
+
+    /**
+     * Stop after the file being parsed, done is called when the worker returns. SwingWorker
+     * cancel is not used as it calls done at once, while the file is still parsed.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /** Start on the executor of the frame, the timer reports progress on the EDT */
+    void submit(Executor executor) {
+        timer.start();
+        executor.execute(this);
+    }
+
+    int size() {
+        return engine.getGraph().size();
+    }
+
+    String rate(long triples, long millis) {
+        if (millis <= 0) {
+            return "-";
+        }
+        return String.format("%,d", triples * 1000 / millis);
+    }
+
+    static String bytes(long length) {
+        if (length < 1024) {
+            return length + " B";
+        } else if (length < 1024 * 1024) {
+            return String.format("%.1f KB", length / 1024.0);
+        } else if (length < 1024L * 1024 * 1024) {
+            return String.format("%.1f MB", length / (1024.0 * 1024));
+        }
+        return String.format("%.2f GB", length / (1024.0 * 1024 * 1024));
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /** Files loaded without error */
+    public List<String> getLoaded() {
+        return loaded;
+    }
+
+    GraphEngine getEngine() {
+        return engine;
+    }
+}
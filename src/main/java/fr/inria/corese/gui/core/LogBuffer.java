@@ -0,0 +1,167 @@
+package fr.inria.corese.gui.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.JTextPane;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Bounded log of the System tab. Messages may be appended from any thread, they are queued and
+ * flushed in one Document insert by a Swing timer. The pane keeps at most corese.gui.log.maxLines
+ * lines, older lines are written to corese-gui.log in corese.gui.log.dir (default tmp dir), the
+ * file is rotated when it exceeds corese.gui.log.fileSize bytes.
+ */
+public class LogBuffer {
+
+    private static final Logger logger = LogManager.getLogger(LogBuffer.class.getName());
+    static final int FLUSH_DELAY = 100;
+    static final String FILE = "corese-gui.log";
+
+    private final JTextPane pane;
+    private final ConcurrentLinkedQueue<String> queue;
+    private final Timer timer;
+    private final int maxLines;
+    private final long fileSize;
+    private final Path file;
+    private ExecutorService spillExecutor;
+
+    LogBuffer(JTextPane pane) {
+        this.pane = pane;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.maxLines = Math.max(1, GuiOptions.intValue("log.maxLines", 10000));
+        this.fileSize = GuiOptions.longValue("log.fileSize", 10L * 1024 * 1024);
+        this.file =
+                Paths.get(
+                        GuiOptions.stringValue("log.dir", System.getProperty("java.io.tmpdir")),
+                        FILE);
+        this.timer = new Timer(FLUSH_DELAY, e -> flush());
+        timer.setRepeats(false);
+    }
+
+    /** Thread safe, the message is displayed at next flush */
+    public void append(String msg) {
+        if (msg == null || msg.isEmpty()) {
+            return;
+        }
+        queue.add(msg);
+        if (!timer.isRunning()) {
+            // Timer start is thread safe, several starts are coalesced
+            timer.start();
+        }
+    }
+
+    /** Called on the EDT: one insert for all pending messages, then trim to maxLines */
+    void flush() {
+        StringBuilder sb = new StringBuilder();
+        for (String msg = queue.poll(); msg != null; msg = queue.poll()) {
+            sb.append(msg);
+        }
+        if (sb.length() == 0) {
+            return;
+        }
+        String text = sb.toString();
+        int start = tail(text);
+        if (start > 0) {
+            // more than maxLines pending: older ones go straight to the file
+            spill(text.substring(0, start));
+            text = text.substring(start);
+        }
+        Document doc = pane.getDocument();
+        try {
+            doc.insertString(doc.getLength(), text, null);
+            trim(doc);
+        } catch (BadLocationException ex) {
+            logger.error("Output capture problem:", ex);
+        }
+        pane.setCaretPosition(doc.getLength());
+        if (!queue.isEmpty()) {
+            timer.restart();
+        }
+    }
+
+    /** Index of the first char of the last maxLines lines of text */
+    int tail(String text) {
+        int lines = 0;
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (text.charAt(i) == '\n' && i < text.length() - 1 && ++lines >= maxLines) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Remove first lines of the document beyond maxLines */
+    void trim(Document doc) throws BadLocationException {
+        Element root = doc.getDefaultRootElement();
+        int extra = root.getElementCount() - maxLines;
+        if (extra > 0) {
+            int end = root.getElement(extra - 1).getEndOffset();
+            spill(doc.getText(0, end));
+            doc.remove(0, end);
+        }
+    }
+
+    /** Append removed lines to the log file in background */
+    void spill(String text) {
+        if (spillExecutor == null) {
+            spillExecutor =
+                    Executors.newSingleThreadExecutor(
+                            r -> {
+                                Thread t = new Thread(r, "corese-log");
+                                t.setDaemon(true);
+                                return t;
+                            });
+            logger.info("System log exceeds " + maxLines + " lines, older lines are in " + file);
+        }
+        spillExecutor.execute(() -> write(text));
+    }
+
+    void write(String text) {
+        try {
+            if (Files.exists(file) && Files.size(file) > fileSize) {
+                Files.move(
+                        file,
+                        file.resolveSibling(FILE + ".1"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (Writer out =
+                    Files.newBufferedWriter(
+                            file,
+                            StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND)) {
+                out.write(text);
+            }
+        } catch (IOException ex) {
+            logger.error("Log file: " + file, ex);
+        }
+    }
+
+    /** Remove pending messages and the content of the pane */
+    public void clear() {
+        queue.clear();
+        pane.setText("");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
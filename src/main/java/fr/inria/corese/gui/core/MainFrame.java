@@ -27,15 +27,27 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import javax.imageio.ImageIO;
 import javax.swing.ButtonGroup;
@@ -67,6 +79,7 @@ import org.json.JSONObject;
 import org.xml.sax.SAXException;
 
 import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.ExpType;
 import fr.inria.corese.core.kgram.core.Mappings;
 import fr.inria.corese.core.kgram.event.Event;
 import fr.inria.corese.core.load.Load;
@@ -95,11 +108,21 @@ import fr.inria.corese.core.workflow.WorkflowProcess;
 import fr.inria.corese.gui.editor.ShaclEditor;
 import fr.inria.corese.gui.editor.TurtleEditor;
 import fr.inria.corese.gui.event.MyEvalListener;
+import fr.inria.corese.gui.event.TraceViewer;
 import fr.inria.corese.gui.query.Buffer;
 import fr.inria.corese.gui.query.GraphEngine;
 import fr.inria.corese.gui.query.MyJPanelQuery;
+import fr.inria.corese.gui.query.QueryExec;
+import fr.inria.corese.gui.query.QueryScheduler;
+import fr.inria.corese.gui.query.RunningQueriesDialog;
+import fr.inria.corese.gui.util.ExportWorker;
+import fr.inria.corese.gui.util.GraphSnapshot;
+import fr.inria.corese.gui.util.GuiOptions;
 import fr.inria.corese.gui.util.GuiPropertyUtils;
 import fr.inria.corese.gui.util.GuiPropertyUtils.Pair;
+import fr.inria.corese.gui.util.ResultWriter;
+import fr.inria.corese.gui.util.ShaclValidator;
+import fr.inria.corese.gui.util.TripleWriter;
 
 /** Main window, with the tab container and menu */
 public class MainFrame extends JFrame implements ActionListener {
@@ -142,6 +165,8 @@ public class MainFrame extends JFrame implements ActionListener {
     private JMenuItem saveResultMarkdown;
     private JMenuItem loadAndRunRule;
     private JMenuItem refresh;
+    private JMenuItem saveSnapshot;
+    private JMenuItem openSnapshot;
     private JMenuItem exportRDF;
     private JMenuItem exportTurtle;
     private JMenuItem exportTrig;
@@ -160,6 +185,7 @@ public class MainFrame extends JFrame implements ActionListener {
     private JMenuItem newQuery;
     private JMenuItem runRules, runRulesOpt;
     private JMenuItem reset;
+    private JMenuItem runningQueries;
     private ButtonGroup myRadio;
     private JRadioButton kgramBox;
     private JMenuItem apropos;
@@ -209,6 +235,8 @@ public class MainFrame extends JFrame implements ActionListener {
     private JCheckBox checkBoxRule;
     private JCheckBox checkBoxVerbose;
     private JCheckBox checkBoxLoad;
+    private JCheckBox checkBoxTraceFile;
+    private JMenuItem traceViewer;
     private JCheckBox cbrdfs,
             cbowlrl,
             cbclean,
@@ -218,6 +246,8 @@ public class MainFrame extends JFrame implements ActionListener {
             cbowlrlext,
             cbtrace,
             cbnamed,
+            cbparallel,
+            cbwatch,
             cbindex;
     private JMenuItem validate;
     // Style corresponding to the graph
@@ -259,6 +289,30 @@ public class MainFrame extends JFrame implements ActionListener {
     private String defaultQuery = DEFAULT_SELECT_QUERY;
     private GraphEngine myCorese = null;
     private CaptureOutput myCapturer = null;
+    // files are loaded one batch after the other outside the EDT
+    private final ExecutorService loadExecutor =
+            Executors.newSingleThreadExecutor(
+                    r -> {
+                        Thread t = new Thread(r, "corese-load");
+                        t.setDaemon(true);
+                        return t;
+                    });
+    private final List<LoadWorker> loadWorkers = new ArrayList<>();
+    // parse of Reload, its result is cached in a snapshot for next Reload
+    private LoadWorker reloadWorker;
+    // content hash and named graphs of files for incremental Reload
+    private final ReloadTracker reloadTracker = new ReloadTracker();
+    private final DatasetWatcher watcher = new DatasetWatcher(this::filesChanged);
+    // files modified while loading, reloaded when the loads are done
+    private final Set<String> pendingChanges = new LinkedHashSet<>();
+    // trace file of the last traced query
+    private Path traceFile;
+    // shapes cache and last report of the SHACL editor
+    private final ShaclValidator shaclValidator = new ShaclValidator();
+    static final String ENTAILMENT = ExpType.KGRAM + "entailment";
+    // queries run on a bounded pool, one after the other in a tab
+    private final QueryScheduler queryScheduler = new QueryScheduler();
+    private RunningQueriesDialog runningQueriesDialog;
     private static final Logger LOGGER = LogManager.getLogger(MainFrame.class.getName());
     // Track which inferences have been applied to provide better user feedback
     private java.util.Set<Integer> appliedInferences = new java.util.HashSet<>();
@@ -575,21 +629,11 @@ public class MainFrame extends JFrame implements ActionListener {
     /** Displays text in the logs panel */
     public void appendMsg(String msg) {
         // Check if UI is fully initialized before trying to append message
-        if (ongletListener == null || ongletListener.getTextPaneLogs() == null) {
+        if (ongletListener == null || ongletListener.getLogBuffer() == null) {
             return;
         }
-
-        Document currentDoc = ongletListener.getTextPaneLogs().getDocument();
-        try {
-            currentDoc.insertString(currentDoc.getLength(), msg, null);
-
-            // Scroll to the bottom after each text addition
-            ongletListener.getScrollPaneLog().revalidate();
-            int length = currentDoc.getLength();
-            ongletListener.getTextPaneLogs().setCaretPosition(length);
-        } catch (Exception innerException) {
-            LOGGER.fatal("Output capture problem:", innerException);
-        }
+        // messages are buffered and flushed on the EDT, the pane keeps the last lines
+        ongletListener.getLogBuffer().append(msg);
     }
 
     public MainFrame msg(String msg) {
@@ -758,6 +802,14 @@ public class MainFrame extends JFrame implements ActionListener {
         refresh = new JMenuItem("Reload");
         refresh.addActionListener(this);
 
+        saveSnapshot = new JMenuItem("Save snapshot");
+        saveSnapshot.addActionListener(this);
+        saveSnapshot.setToolTipText("Save the graph in a binary file that loads fast");
+
+        openSnapshot = new JMenuItem("Open snapshot");
+        openSnapshot.addActionListener(this);
+        openSnapshot.setToolTipText("Replace the graph by a snapshot");
+
         exportRDF = new JMenuItem("RDF/XML");
         exportRDF.addActionListener(this);
         exportRDF.setToolTipText("Export graph in RDF/XML format");
@@ -873,6 +925,8 @@ public class MainFrame extends JFrame implements ActionListener {
         runRulesOpt.addActionListener(this);
         reset = new JMenuItem("Reset");
         reset.addActionListener(this);
+        runningQueries = new JMenuItem("Running queries");
+        runningQueries.addActionListener(this);
         apropos = new JMenuItem("About Corese");
         apropos.addActionListener(this);
         tuto = new JMenuItem("Online tutorial");
@@ -907,11 +961,18 @@ public class MainFrame extends JFrame implements ActionListener {
         cbclean = new JCheckBox("OWL Clean");
 
         cbnamed = new JCheckBox("Load Named");
+        cbparallel = new JCheckBox("Parallel Load");
+        cbwatch = new JCheckBox("Watch Files");
+        cbwatch.setToolTipText("Reload loaded files when they are modified");
 
         checkBoxLoad = new JCheckBox("Load");
         checkBoxQuery = new JCheckBox("Query");
         checkBoxRule = new JCheckBox("Rule");
         checkBoxVerbose = new JCheckBox("Verbose");
+        checkBoxTraceFile = new JCheckBox("Trace to File", true);
+        checkBoxTraceFile.setToolTipText("Write the events of traced queries to a file");
+        traceViewer = new JMenuItem("Trace Viewer");
+        traceViewer.addActionListener(e -> showTrace());
         validate = new JMenuItem("Validate");
 
         // Initialize zoom menu items
@@ -975,6 +1036,8 @@ public class MainFrame extends JFrame implements ActionListener {
         fileMenuLoad.add(loadStyle);
 
         fileMenu.add(refresh);
+        fileMenu.add(saveSnapshot);
+        fileMenu.add(openSnapshot);
 
         fileMenu.add(execWorkflow);
         fileMenu.add(cpTransform);
@@ -1089,8 +1152,11 @@ public class MainFrame extends JFrame implements ActionListener {
         engineMenu.add(runRules);
         engineMenu.add(runRulesOpt);
         engineMenu.add(reset);
+        engineMenu.add(runningQueries);
         engineMenu.add(cbtrace);
         engineMenu.add(cbnamed);
+        engineMenu.add(cbparallel);
+        engineMenu.add(cbwatch);
 
         // entailment
         engineMenu.add(cbrdfs);
@@ -1187,25 +1253,44 @@ public class MainFrame extends JFrame implements ActionListener {
                     Load.setDefaultGraphValue(!cbnamed.isSelected());
                 });
 
+        // parse files concurrently in staging graphs
+        cbparallel.setSelected(myCorese.isParallelLoad());
+        cbparallel.setEnabled(true);
+        cbparallel.addItemListener(
+                (ItemEvent e) -> {
+                    myCorese.setParallelLoad(cbparallel.isSelected());
+                });
+
+        // reload modified files in background
+        cbwatch.setSelected(false);
+        cbwatch.addItemListener(
+                (ItemEvent e) -> {
+                    setWatch(cbwatch.isSelected());
+                });
+
         cbowlrl.setEnabled(true);
         cbowlrl.setSelected(false);
         cbowlrl.addItemListener(
                 (ItemEvent e) -> {
-                    setOWLRL(cbowlrl.isSelected(), RuleEngine.OWL_RL);
+                    if (!uncheckWhileLoading(cbowlrl)) {
+                        setOWLRL(cbowlrl.isSelected(), RuleEngine.OWL_RL);
+                    }
                 });
 
         cbowlrltest.setEnabled(true);
         cbowlrltest.setSelected(false);
         cbowlrltest.addItemListener(
                 (ItemEvent e) -> {
-                    setOWLRL(cbowlrltest.isSelected(), RuleEngine.OWL_RL_TEST);
+                    if (!uncheckWhileLoading(cbowlrltest)) {
+                        setOWLRL(cbowlrltest.isSelected(), RuleEngine.OWL_RL_TEST);
+                    }
                 });
 
         cbclean.setEnabled(true);
         cbclean.setSelected(false);
         cbclean.addItemListener(
                 (ItemEvent e) -> {
-                    if (cbclean.isSelected()) {
+                    if (cbclean.isSelected() && !uncheckWhileLoading(cbclean)) {
                         cleanOWL();
                     }
                 });
@@ -1214,7 +1299,7 @@ public class MainFrame extends JFrame implements ActionListener {
         cbindex.setSelected(false);
         cbindex.addItemListener(
                 (ItemEvent e) -> {
-                    if (cbindex.isSelected()) {
+                    if (cbindex.isSelected() && !uncheckWhileLoading(cbindex)) {
                         graphIndex();
                     }
                 });
@@ -1223,13 +1308,18 @@ public class MainFrame extends JFrame implements ActionListener {
         cbrdfsrl.setSelected(false);
         cbrdfsrl.addItemListener(
                 (ItemEvent e) -> {
-                    setOWLRL(cbrdfsrl.isSelected(), RuleEngine.RDFS_RL);
+                    if (!uncheckWhileLoading(cbrdfsrl)) {
+                        setOWLRL(cbrdfsrl.isSelected(), RuleEngine.RDFS_RL);
+                    }
                 });
 
         cbowlrlext.setEnabled(true);
         cbowlrlext.setSelected(false);
         cbowlrlext.addItemListener(
                 (ItemEvent e) -> {
+                    if (uncheckWhileLoading(cbowlrlext)) {
+                        return;
+                    }
                     // OWL RL + extension: a owl:Restriction -> a owl:Class
                     setOWLRL(cbowlrlext.isSelected(), RuleEngine.OWL_RL_EXT, false);
                     setOWLRL(cbowlrlext.isSelected(), RuleEngine.OWL_RL);
@@ -1268,6 +1358,9 @@ public class MainFrame extends JFrame implements ActionListener {
                     }
                 });
 
+        debugMenu.add(checkBoxTraceFile);
+        debugMenu.add(traceViewer);
+
         debugMenu.add(validate);
         ActionListener l_validateListener =
                 new ActionListener() {
@@ -1326,7 +1419,9 @@ public class MainFrame extends JFrame implements ActionListener {
                 new ItemListener() {
                     @Override
                     public void itemStateChanged(ItemEvent e) {
-                        runRule(box.isSelected(), path);
+                        if (!uncheckWhileLoading(box)) {
+                            runRule(box.isSelected(), path);
+                        }
                     }
                 });
         return box;
@@ -1638,10 +1733,15 @@ public class MainFrame extends JFrame implements ActionListener {
         } // Remet tout à zéro
         else if (e.getSource() == reset) {
             reset();
+        } else if (e.getSource() == runningQueries) {
+            showRunningQueries();
         } // Recharge tous les fichiers déjà chargés
         else if (e.getSource() == refresh) {
-            this.resetAllEngineStates();
-            ongletListener.refresh(this);
+            reloadAll();
+        } else if (e.getSource() == saveSnapshot) {
+            saveSnapshot();
+        } else if (e.getSource() == openSnapshot) {
+            openSnapshot();
         } else if (e.getSource() == apropos || e.getSource() == tuto || e.getSource() == doc) {
             String uri = URI_CORESE;
             if (e.getSource() == doc) {
@@ -1842,14 +1942,54 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     void saveGraph(ResultFormat.format format) {
-        Graph graph = myCorese.getGraph();
-        ResultFormat ft = ResultFormat.create(graph);
-        ft.setSelectFormat(format);
-        ft.setConstructFormat(format);
-        save(ft.toString());
+        if (isBusy("Save Graph")) {
+            return;
+        }
+        TripleWriter.Syntax syntax = TripleWriter.syntax(format);
+        if (syntax == null) {
+            Graph graph = myCorese.getGraph();
+            ResultFormat ft = ResultFormat.create(graph);
+            ft.setSelectFormat(format);
+            ft.setConstructFormat(format);
+            save(ft.toString());
+        } else {
+            exportGraph(syntax);
+        }
+    }
+
+    /** Stream the triples of the graph to a file in background */
+    void exportGraph(TripleWriter.Syntax syntax) {
+        if (isBusy("Export")) {
+            return;
+        }
+        File file = chooseFile();
+        if (file != null) {
+            GraphEngine engine = myCorese;
+            Graph graph = engine.getGraph();
+            new ExportWorker(
+                            this,
+                            file.toPath(),
+                            graph.size(),
+                            "triples",
+                            (out, progress) -> {
+                                // a query update must not change the graph during the export
+                                Lock lock = engine.readLock();
+                                lock.lock();
+                                try {
+                                    return new TripleWriter(out, syntax).write(graph, progress);
+                                } finally {
+                                    lock.unlock();
+                                }
+                            },
+                            this::appendMsg)
+                    .execute();
+        }
     }
 
     void saveGraph(String format) {
+        if (isBusy("Save Graph")) {
+            return;
+        }
         Graph graph = myCorese.getGraph();
         Transformer transformer = Transformer.create(graph, format);
         try {
@@ -1865,6 +2005,9 @@ public class MainFrame extends JFrame implements ActionListener {
      * @param format the format in which the graph will be saved
      */
     void saveGraphCanonic(HashAlgorithm algo) {
+        if (isBusy("Save Graph")) {
+            return;
+        }
         Graph graph = myCorese.getGraph();
         CanonicalRdf10Format transformer = null;
 
@@ -1888,8 +2031,48 @@ public class MainFrame extends JFrame implements ActionListener {
      *     list of formats)
      */
     void saveResult(ResultFormat.format format) {
-        ResultFormat ft = ResultFormat.create(current.getMappings(), format);
-        save(ft.toString());
+        Mappings map = current.getMappings();
+        if (map == null || !ResultWriter.accept(format) || !ResultWriter.accept(map)) {
+            ResultFormat ft = ResultFormat.create(map, format);
+            save(ft.toString());
+            return;
+        }
+        // a result truncated by the max rows limit can be exported by executing the query again
+        // on the engine of the tab without this limit, within the timeout of the tab; other
+        // limits would stop it again
+        String query = current.isRowLimited() ? current.getResultQuery() : null;
+        GraphEngine engine = current.getResultEngine();
+        int timeout = current.getLimits().getTimeout();
+        boolean pages =
+                query != null
+                        && engine != null
+                        && JOptionPane.showConfirmDialog(
+                                        this,
+                                        "The result is truncated ("
+                                                + current.getTruncated()
+                                                + ").\nExecute the query again to save all"
+                                                + " results"
+                                                + (timeout > 0
+                                                        ? " within " + timeout + " s?"
+                                                        : "?"),
+                                        "Save result",
+                                        JOptionPane.YES_NO_OPTION)
+                                == JOptionPane.YES_OPTION;
+        File file = chooseFile();
+        if (file == null) {
+            return;
+        }
+        ExportWorker.Export export;
+        if (pages) {
+            QueryExec exec = QueryExec.create(engine);
+            export =
+                    (out, progress) ->
+                            new ResultWriter(out, format).write(exec, query, timeout, progress);
+        } else {
+            export = (out, progress) -> new ResultWriter(out, format).write(map, progress);
+        }
+        long total = pages ? 0 : map.size();
+        new ExportWorker(this, file.toPath(), total, "rows", export, this::appendMsg).execute();
     }
 
     void saveQuery() {
@@ -1923,7 +2106,8 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     void reset() {
-        ongletListener.getTextPaneLogs().setText("");
+        reloadTracker.clear();
+        ongletListener.getLogBuffer().clear();
         ongletListener.getListLoadedFiles().removeAll();
         ongletListener.getModel().removeAllElements();
         setMyCoreseNewInstance();
@@ -1931,7 +2115,8 @@ public class MainFrame extends JFrame implements ActionListener {
         appendMsg("reset... \n" + myCapturer.getContent() + "\ndone.\n");
     }
 
-    void save(String str) {
+    /** File selected by the user to save into, null if none */
+    File chooseFile() {
         JFileChooser filechoose = new JFileChooser(getPath());
         // Le bouton pour valider l’enregistrement portera la mention enregistrer
         String approve = "Save";
@@ -1941,8 +2126,16 @@ public class MainFrame extends JFrame implements ActionListener {
         if (resultatEnregistrer == JFileChooser.APPROVE_OPTION) {
             // Récupérer le nom du fichier qu’il a spécifié
             File f = filechoose.getSelectedFile();
-            String myFile = f.toString();
             setPath(f.getParent());
+            return f;
+        }
+        return null;
+    }
+
+    void save(String str) {
+        File f = chooseFile();
+        if (f != null) {
+            String myFile = f.toString();
             try (OutputStreamWriter writer =
                     new OutputStreamWriter(new FileOutputStream(myFile), StandardCharsets.UTF_8)) {
                 writer.write(str);
@@ -1968,6 +2161,9 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     void runRules(boolean opt) throws EngineException {
+        if (isBusy("Run Rules")) {
+            return;
+        }
         if (opt) {
             cbrdfs.setSelected(false);
             setRDFSEntailment(false);
@@ -2128,6 +2324,7 @@ public class MainFrame extends JFrame implements ActionListener {
             File[] lFiles = fileChooser.getSelectedFiles();
 
             DefaultListModel<String> model = getOngletListener().getModel();
+            List<String> paths = new ArrayList<>();
             for (File f : lFiles) {
                 lPath = f.getAbsolutePath();
                 if (lPath == null) {
@@ -2145,20 +2342,23 @@ public class MainFrame extends JFrame implements ActionListener {
                     appendMsg(
                             "Please select a file with an extension (e.g: .ttl, .rdf, .trig, .jsonld, .html, ...)\n");
                     appendMsg("Load is aborted\n");
-                    return;
+                    break;
                 }
 
-                appendMsg("Loading " + extension(lPath) + " File from path : " + lPath + "\n");
                 if (wf) {
+                    appendMsg("Loading " + extension(lPath) + " File from path : " + lPath + "\n");
                     if (exec) {
                         execWF(lPath);
                     } else {
                         loadWF(lPath, run);
                     }
+                    appendMsg("\nLoading is done\n");
                 } else {
-                    load(lPath);
+                    paths.add(lPath);
                 }
-                appendMsg("\nLoading is done\n");
+            }
+            if (!paths.isEmpty()) {
+                load(paths);
             }
         }
     }
@@ -2168,9 +2368,7 @@ public class MainFrame extends JFrame implements ActionListener {
         if (!model.contains(path)) {
             model.addElement(path);
         }
-        appendMsg("Loading " + path + "\n");
         load(path);
-        appendMsg("Load done\n");
     }
 
     void execWF(String path) {
@@ -2340,19 +2538,384 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     public void load(String fichier) {
+        load(List.of(fichier));
+    }
+
+    /** Load files in a background worker, the System tab reports progress */
+    public void load(List<String> paths) {
         controler(LOAD);
+        submitLoad(paths);
+    }
+
+    void submitLoad(List<String> paths) {
+        submitLoad(new LoadWorker(this, myCorese, paths));
+    }
+
+    void submitLoad(LoadWorker worker) {
+        loadWorkers.add(worker);
+        ongletListener.setLoading(true);
+        worker.submit(loadExecutor);
+    }
+
+    void loadDone(LoadWorker worker) {
+        loadWorkers.remove(worker);
+        ongletListener.setLoading(isLoading());
+        if (watcher.isWatching() && !isLoading()) {
+            // the list of loaded files may have changed
+            setWatch(true);
+        }
+        if (worker == reloadWorker) {
+            reloadWorker = null;
+            List<String> files = loadedFiles();
+            if (!worker.isStopped() && worker.getLoaded().equals(worker.getPaths())) {
+                // next Reload is complete if the graph is modified from now on
+                reloadTracker.done(myCorese.getGraph());
+                if (isCacheable(files)) {
+                    cacheReload(files);
+                }
+            }
+        }
+        if (!pendingChanges.isEmpty() && !isLoading()) {
+            watchReload();
+        }
+    }
+
+    /** Reload action of the File menu */
+    void reloadAll() {
+        if (!appliedInferences.isEmpty()) {
+            // inferences on unchanged files would not be removed
+            reloadTracker.clear();
+        }
+        this.resetAllEngineStates();
+        ongletListener.refresh(this);
+    }
+
+    /** Watch loaded files, or stop watching */
+    void setWatch(boolean b) {
+        if (!b) {
+            watcher.stop();
+            pendingChanges.clear();
+            return;
+        }
+        List<String> files = loadedFiles();
         try {
-            Date d1 = new Date();
-            myCorese.load(fichier);
-            Date d2 = new Date();
-            appendMsg(myCapturer.getContent());
-            LOGGER.info("Load time: " + (d2.getTime() - d1.getTime()) / 1000.0);
-        } catch (EngineException | LoadException e) {
-            appendMsg(e.toString());
-            e.printStackTrace();
+            boolean start = !watcher.isWatching();
+            watcher.watch(files);
+            if (start) {
+                appendMsg(String.format("Watching %s file(s)%n", files.size()));
+            }
+        } catch (IOException ex) {
+            LOGGER.error(ex);
+            appendMsg("Watch files: " + ex.getMessage() + "\n");
+            cbwatch.setSelected(false);
+        }
+    }
+
+    /** Called by the watcher on the EDT when loaded files were modified */
+    void filesChanged(Set<String> files) {
+        appendMsg("Modified: " + String.join(", ", files) + "\n");
+        if (isLoading()) {
+            // the running load is not cancelled, files are reloaded when it is done
+            pendingChanges.addAll(files);
+            return;
+        }
+        watchReload();
+    }
+
+    /**
+     * Reload loaded files after a change, incremental once the files are tracked. Unlike the Reload
+     * action, engine states such as RDFS entailment are kept; inferences on unchanged files would
+     * not be removed, with inferences Reload is complete and they must be applied again.
+     */
+    void watchReload() {
+        pendingChanges.clear();
+        if (!appliedInferences.isEmpty()) {
+            reloadTracker.clear();
+            appliedInferences.clear();
+            resetOwlCheckBox();
+            cbrdfsrl.setSelected(false);
+        }
+        reload(loadedFiles(), false);
+    }
+
+    /**
+     * Reload files. When the last Reload tracked them, only files whose content changed are
+     * parsed again in the current graph. Otherwise the engine is created again and files are
+     * loaded from the snapshot of their last Reload when it is up to date, or parsed.
+     */
+    public void reload(List<String> files) {
+        reload(files, true);
+    }
+
+    /** Reload files, reset the engine states when reset is true */
+    void reload(List<String> files, boolean reset) {
+        // the tracker is updated by the running load
+        List<String> changed = isLoading() ? null : changedFiles(files);
+        if (changed != null) {
+            appendMsg(
+                    String.format(
+                            "Reload %s changed file(s) out of %s%n", changed.size(), files.size()));
+            if (!changed.isEmpty()) {
+                Set<String> drop = reloadTracker.graphs(changed);
+                if (cbrdfs.isSelected()) {
+                    // inferred again by the engine from the new graph
+                    drop.add(ENTAILMENT);
+                }
+                if (reset) {
+                    controler(LOAD);
+                }
+                reloadWorker = new ReloadWorker(this, myCorese, changed, reloadTracker, drop);
+                submitLoad(reloadWorker);
+            }
+            return;
+        }
+        reloadTracker.clear();
+        setMyCoreseNewInstance();
+        if (files.isEmpty()) {
+            return;
+        }
+        Path path = freshSnapshot(files);
+        if (path != null) {
+            appendMsg("Reload from snapshot: " + path + "\n");
+            if (reset) {
+                controler(LOAD);
+            }
+            submitLoad(snapshotWorker(path));
+        } else if (isStaging(files)) {
+            if (cbnamed.isSelected()) {
+                // one named graph per file, next Reload can be incremental
+                reloadTracker.start(files, cbrdfs.isSelected());
+            }
+            if (reset) {
+                controler(LOAD);
+            }
+            reloadWorker = new ReloadWorker(this, myCorese, files, reloadTracker, Set.of());
+            submitLoad(reloadWorker);
+        } else if (reset) {
+            load(files);
+        } else {
+            submitLoad(files);
         }
     }
 
+    /** Files to parse again for an incremental Reload, null if Reload must be complete */
+    List<String> changedFiles(List<String> files) {
+        if (!cbnamed.isSelected() || files.isEmpty()) {
+            return null;
+        }
+        try {
+            return reloadTracker.changed(files, cbrdfs.isSelected());
+        } catch (IOException ex) {
+            LOGGER.warn("Reload: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Snapshot of the last Reload of these files, null if there is none or a file changed since.
+     * Snapshots saved by the user are not used: the graph may have been modified after the load,
+     * e.g. by SPARQL Update or rules.
+     */
+    Path freshSnapshot(List<String> files) {
+        if (!isCacheable(files)) {
+            return null;
+        }
+        Path path = reloadCache(files);
+        try {
+            if (Files.isRegularFile(path)
+                    && GraphSnapshot.header(path)
+                            .isFresh(files, cbrdfs.isSelected(), cbnamed.isSelected())) {
+                return path;
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Snapshot " + path + ": " + ex.getMessage());
+        }
+        return null;
+    }
+
+    /** Rules, queries and workflows set the engine state, it is not in a snapshot */
+    boolean isCacheable(List<String> files) {
+        return GuiOptions.booleanValue("snapshot.reload", true) && isStaging(files);
+    }
+
+    /** RDF files only */
+    static boolean isStaging(List<String> files) {
+        return !files.isEmpty() && files.stream().allMatch(GraphEngine::isStaging);
+    }
+
+    /** Snapshot of the last Reload of these files, in corese.gui.snapshot.dir */
+    Path reloadCache(List<String> files) {
+        String dir =
+                GuiOptions.stringValue(
+                        "snapshot.dir",
+                        Paths.get(System.getProperty("java.io.tmpdir"), "corese-gui").toString());
+        String name =
+                String.format(
+                        "reload-%08x-%s%s.snap",
+                        files.hashCode(),
+                        cbrdfs.isSelected() ? "r" : "",
+                        cbnamed.isSelected() ? "n" : "");
+        return Paths.get(dir, name);
+    }
+
+    /** Write the snapshot of the graph after the load executor is done with loads */
+    void cacheReload(List<String> files) {
+        GraphEngine engine = myCorese;
+        Graph graph = engine.getGraph();
+        Path path = reloadCache(files);
+        boolean rdfs = cbrdfs.isSelected();
+        boolean named = cbnamed.isSelected();
+        loadExecutor.execute(
+                () -> {
+                    try {
+                        Files.createDirectories(path.getParent());
+                        Path tmp = Files.createTempFile(path.getParent(), "reload", ".tmp");
+                        Lock lock = engine.readLock();
+                        lock.lock();
+                        try (OutputStream out = Files.newOutputStream(tmp)) {
+                            GraphSnapshot.write(graph, out, files, rdfs, named, null);
+                        } finally {
+                            lock.unlock();
+                        }
+                        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+                        LOGGER.info("Reload snapshot: " + path);
+                    } catch (IOException ex) {
+                        LOGGER.warn("Reload snapshot: " + ex.getMessage());
+                    }
+                });
+    }
+
+    LoadWorker snapshotWorker(Path path) {
+        return new LoadWorker(this, myCorese, List.of(path.toString())) {
+            @Override
+            void load(String file) throws IOException {
+                GraphSnapshot.read(Paths.get(file), getEngine().getGraph());
+            }
+        };
+    }
+
+    /**
+     * Load a Turtle document, e.g. the content of an editor, on the load executor after the
+     * pending loads. done is called on the EDT with true when the document is loaded.
+     */
+    public void loadTurtle(String document, String name, Consumer<Boolean> done) {
+        submitLoad(
+                new LoadWorker(this, myCorese, List.of(name)) {
+                    @Override
+                    void load(String path) throws EngineException, LoadException {
+                        getEngine().loadRDF(document, Load.format.TURTLE_FORMAT);
+                    }
+
+                    @Override
+                    protected void done() {
+                        super.done();
+                        done.accept(!isStopped() && !getLoaded().isEmpty());
+                    }
+                });
+    }
+
+    /** Save the graph with the list of loaded files in a binary snapshot */
+    void saveSnapshot() {
+        if (isBusy("Save Snapshot")) {
+            return;
+        }
+        File file = chooseFile();
+        if (file != null) {
+            GraphEngine engine = myCorese;
+            Graph graph = engine.getGraph();
+            List<String> files = loadedFiles();
+            boolean rdfs = cbrdfs.isSelected();
+            boolean named = cbnamed.isSelected();
+            new ExportWorker(
+                            this,
+                            file.toPath(),
+                            graph.size(),
+                            "quads",
+                            (out, progress) -> {
+                                // a query update must not change the graph during the write
+                                Lock lock = engine.readLock();
+                                lock.lock();
+                                try {
+                                    return GraphSnapshot.write(
+                                            graph, out, files, rdfs, named, progress);
+                                } finally {
+                                    lock.unlock();
+                                }
+                            },
+                            this::appendMsg)
+                    .execute();
+        }
+    }
+
+    /** Replace the graph by a snapshot, its sources become the loaded files */
+    void openSnapshot() {
+        JFileChooser fileChooser = new JFileChooser(getPath());
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        setPath(file.getParent());
+        GraphSnapshot.Header header;
+        try {
+            header = GraphSnapshot.header(file.toPath());
+        } catch (IOException ex) {
+            appendMsg("Error: " + file + ": " + ex.getMessage() + "\n");
+            return;
+        }
+        cancelLoad();
+        reloadTracker.clear();
+        resetAllEngineStates();
+        cbrdfs.setSelected(header.isRDFS());
+        cbnamed.setSelected(header.isNamed());
+        setMyCoreseNewInstance();
+        DefaultListModel<String> model = getOngletListener().getModel();
+        model.removeAllElements();
+        header.getPaths().forEach(model::addElement);
+        controler(LOAD);
+        submitLoad(snapshotWorker(file.toPath()));
+    }
+
+    List<String> loadedFiles() {
+        DefaultListModel<String> model = getOngletListener().getModel();
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < model.getSize(); i++) {
+            files.add(model.getElementAt(i));
+        }
+        return files;
+    }
+
+    public boolean isLoading() {
+        return !loadWorkers.isEmpty();
+    }
+
+    /**
+     * Stop running and pending loads, the file being parsed is completed. They remain loading
+     * until their worker returns.
+     */
+    public void cancelLoad() {
+        for (LoadWorker worker : loadWorkers) {
+            worker.stop();
+        }
+    }
+
+    /** Graph changes and exports wait for loads: report it and return true while loading */
+    boolean isBusy(String action) {
+        if (isLoading()) {
+            appendMsg(action + ": wait for the load to complete, or cancel it\n");
+            return true;
+        }
+        return false;
+    }
+
+    /** Uncheck a box that changes the graph while loading, return true if it was unchecked */
+    boolean uncheckWhileLoading(JCheckBox box) {
+        if (box.isSelected() && isBusy(box.getText())) {
+            box.setSelected(false);
+            return true;
+        }
+        return false;
+    }
+
     /** Crée un nouvel onglet requête avec le texte contenu dans un fichier */
     public String loadText() {
         return loadText(null);
@@ -2442,26 +3005,11 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     public void loadRule(String fichier) {
-        try {
-            myCorese.load(fichier);
-            appendMsg(myCapturer.getContent() + "\ndone.\n\n");
-        } catch (EngineException | LoadException e) {
-            appendMsg(e.toString());
-            e.printStackTrace();
-        }
+        submitLoad(List.of(fichier));
     }
 
     public void loadRDF(String fichier) {
-        try {
-            myCorese.load(fichier);
-            appendMsg(myCapturer.getContent() + "\ndone.\n\n");
-        } catch (EngineException e) {
-            appendMsg(e.toString());
-            e.printStackTrace();
-        } catch (LoadException e) {
-            appendMsg(e.toString());
-            e.printStackTrace();
-        }
+        submitLoad(List.of(fichier));
     }
 
     // Getteurs et setteurs utiles
@@ -2488,16 +3036,25 @@ public class MainFrame extends JFrame implements ActionListener {
         return myCorese;
     }
 
+    public ShaclValidator getShaclValidator() {
+        return shaclValidator;
+    }
+
     // Réinitialise Corese
     public void setMyCoreseNewInstance() {
         setMyCoreseNewInstance(cbrdfs.isSelected());
     }
 
     void setMyCoreseNewInstance(boolean rdfs) {
+        boolean parallel = false;
         if (myCorese != null) {
+            parallel = myCorese.isParallelLoad();
             myCorese.finish();
         }
+        // release the previous graph, next validation is complete
+        shaclValidator.clear();
         myCorese = GraphEngine.create(rdfs);
+        myCorese.setParallelLoad(parallel);
         // execute options and -init property
         myCorese.init(cmd);
     }
@@ -2624,6 +3181,18 @@ public class MainFrame extends JFrame implements ActionListener {
         this.isKgram = isKgram;
     }
 
+    public QueryScheduler getQueryScheduler() {
+        return queryScheduler;
+    }
+
+    void showRunningQueries() {
+        if (runningQueriesDialog == null) {
+            runningQueriesDialog =
+                    new RunningQueriesDialog(this, queryScheduler, getConteneurOnglets());
+        }
+        runningQueriesDialog.setVisible(true);
+    }
+
     public MyJPanelQuery getPanel() {
         return current;
     }
@@ -2636,6 +3205,27 @@ public class MainFrame extends JFrame implements ActionListener {
         this.el = el;
     }
 
+    /** Events of traced queries are written to a file instead of the log panel */
+    public boolean isTraceFile() {
+        return checkBoxTraceFile.isSelected();
+    }
+
+    public void setTraceFile(Path path) {
+        traceFile = path;
+    }
+
+    void showTrace() {
+        if (traceFile == null || !Files.isRegularFile(traceFile)) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "No trace file, run a query with Trace",
+                    "Trace Viewer",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        new TraceViewer(this, traceFile).setVisible(true);
+    }
+
     public void setPath(String path) {
         this.lCurrentPath = path;
     }
@@ -2678,6 +3268,10 @@ public class MainFrame extends JFrame implements ActionListener {
     }
 
     public static void main(String[] p_args) {
+        if (BatchRunner.isBatch(p_args)) {
+            // no window, no AWT
+            System.exit(BatchRunner.run(p_args));
+        }
         CaptureOutput aCapturer = new CaptureOutput();
         MainFrame coreseFrame = new MainFrame(aCapturer, p_args);
         coreseFrame.setStyleSheet();
@@ -2827,10 +3421,13 @@ public class MainFrame extends JFrame implements ActionListener {
             if (cbindex != null) cbindex.setFont(font);
             if (cbclean != null) cbclean.setFont(font);
             if (cbnamed != null) cbnamed.setFont(font);
+            if (cbparallel != null) cbparallel.setFont(font);
+            if (cbwatch != null) cbwatch.setFont(font);
             if (checkBoxLoad != null) checkBoxLoad.setFont(font);
             if (checkBoxQuery != null) checkBoxQuery.setFont(font);
             if (checkBoxRule != null) checkBoxRule.setFont(font);
             if (checkBoxVerbose != null) checkBoxVerbose.setFont(font);
+            if (checkBoxTraceFile != null) checkBoxTraceFile.setFont(font);
 
             // Update radio buttons
             if (kgramBox != null) kgramBox.setFont(font);
@@ -11,7 +11,9 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import javax.swing.DefaultListModel;
 import javax.swing.GroupLayout;
@@ -23,7 +25,6 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextPane;
 import javax.swing.LayoutStyle;
-import javax.swing.text.Document;
 
 /**
  * Onglet Listener avec tout ce qu'il contient
@@ -35,12 +36,14 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
     private static final long serialVersionUID = 1L;
     private JButton buttonRefresh;
     private JButton buttonDebug;
+    private JButton buttonCancelLoad;
     private JLabel labelLoadedFiles;
     private JLabel labelLogs;
     private JPanel paneListener;
     private JScrollPane scrollPaneList;
     private JScrollPane scrollPaneLogs;
     private JTextPane textPaneLogs;
+    private LogBuffer logBuffer;
     private DefaultListModel<String> model;
     private boolean frameShow = true;
     protected static JList<String> listLoadedFiles; // list present in the JpanelListener
@@ -61,6 +64,7 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
         labelLoadedFiles = new JLabel();
         buttonRefresh = new JButton();
         buttonDebug = new JButton();
+        buttonCancelLoad = new JButton();
         scrollPaneList = new JScrollPane();
 
         model = new DefaultListModel<>();
@@ -72,6 +76,7 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
         labelLogs = new JLabel();
         scrollPaneLogs = new JScrollPane();
         textPaneLogs = new JTextPane();
+        logBuffer = new LogBuffer(textPaneLogs);
 
         labelLoadedFiles.setText("Loaded files:");
 
@@ -116,6 +121,11 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
                 };
         buttonDebug.addActionListener(l_DebugListener);
 
+        // Stop the background load after the file being parsed
+        buttonCancelLoad.setText("Cancel load");
+        buttonCancelLoad.setEnabled(false);
+        buttonCancelLoad.addActionListener(e -> coreseFrame.cancelLoad());
+
         // Ecoute le reload du pop-up
         ActionListener l_ReloadFileListener =
                 new ActionListener() {
@@ -129,7 +139,7 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
         ActionListener l_DeleteFileListener =
                 new ActionListener() {
                     public void actionPerformed(ActionEvent e) {
-                        getTextPaneLogs().setText(""); // supprime les logs de la fenêtre
+                        getLogBuffer().clear(); // supprime les logs de la fenêtre
                         appendMsg(
                                 "Delete Files : "
                                         + coreseFrame
@@ -242,6 +252,8 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
         hSeq2.addGap(378);
 
         hSeq2.addPreferredGap(LayoutStyle.ComponentPlacement.RELATED, 257, Short.MAX_VALUE);
+        hSeq2.addComponent(buttonCancelLoad);
+        hSeq2.addGap(18, 18, 18);
         hSeq2.addComponent(buttonDebug);
         hSeq2.addGap(18, 18, 18);
         hSeq2.addComponent(buttonRefresh);
@@ -285,6 +297,7 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
         vParallel2.addComponent(labelLoadedFiles);
         vParallel2.addComponent(buttonRefresh);
         vParallel2.addComponent(buttonDebug);
+        vParallel2.addComponent(buttonCancelLoad);
         vSeq1.addContainerGap();
         vSeq1.addGroup(vParallel2);
         vSeq1.addPreferredGap(LayoutStyle.ComponentPlacement.RELATED);
@@ -315,25 +328,25 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
     }
 
     /**
-     * Re-initializes CORESE and Reloads all previously loaded files
+     * Reloads all previously loaded files, see MainFrame.reload
      *
      * @param coreseFrame
      */
     public void refresh(MainFrame coreseFrame) {
         // coreseFrame.setMyCoreseNewInstance();
+        coreseFrame.cancelLoad();
         appendMsg("reload ...\n" + coreseFrame.getMyCapturer().getContent() + "\n", coreseFrame);
-        coreseFrame.setMyCoreseNewInstance();
-        if (model.getSize() != 0) {
-            for (int i = 0; i < model.getSize(); i++) {
-                String file = (String) model.getElementAt(i);
-                appendMsg("Loading: " + file + "\n", coreseFrame);
-                if (file.endsWith(".rul")) {
-                    coreseFrame.loadRule(file);
-                } else {
-                    coreseFrame.load(file);
-                }
-            }
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < model.getSize(); i++) {
+            files.add(model.getElementAt(i));
         }
+        // rule files are loaded in the same batch to keep the order
+        coreseFrame.reload(files);
+    }
+
+    /** Enable the cancel button while a background load is running */
+    void setLoading(boolean b) {
+        buttonCancelLoad.setEnabled(b);
     }
 
     /**
@@ -343,12 +356,7 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
      * @param coreseFrame
      */
     private void appendMsg(String msg, MainFrame coreseFrame) {
-        final Document doc = textPaneLogs.getDocument();
-        try {
-            doc.insertString(textPaneLogs.getDocument().getLength(), msg, null);
-        } catch (Exception l_InnerException) {
-            coreseFrame.getLogger().fatal("Output capture problem:", l_InnerException);
-        }
+        logBuffer.append(msg);
     }
 
     // getteurs et setteurs utiles
@@ -364,6 +372,10 @@ public class MyJPanelListener extends JPanel implements MouseListener, ActionLis
         return textPaneLogs;
     }
 
+    public LogBuffer getLogBuffer() {
+        return logBuffer;
+    }
+
     public JScrollPane getScrollPaneLog() {
         return scrollPaneLogs;
     }
@@ -0,0 +1,228 @@
+package fr.inria.corese.gui.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.api.GraphListener;
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.kgram.core.Query;
+
+/**
+ * Content hash and named graphs of the files loaded by the last Reload. Next Reload drops and
+ * parses again only the named graphs of files whose content changed. The hash of a file is
+ * computed again only when its modification time or size changed. It must be complete when
+ * the list of files or the load modes changed, when a file was not tracked, or when the graph was
+ * modified since the last Reload, e.g. by SPARQL Update or the editor: a listener counts the
+ * triples inserted or deleted out of the entailment graph.
+ */
+class ReloadTracker implements GraphListener {
+
+    static final int BUFFER = 1 << 16;
+
+    static class Entry {
+        final long modified;
+        final long size;
+        final String hash;
+        final Set<String> graphs;
+
+        Entry(long modified, long size, String hash, Set<String> graphs) {
+            this.modified = modified;
+            this.size = size;
+            this.hash = hash;
+            this.graphs = graphs;
+        }
+
+        boolean isSame(File file) {
+            return file.lastModified() == modified && file.length() == size;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private List<String> files = List.of();
+    private boolean rdfs;
+    // graph of the last tracked Reload, its size then and the number of changes since
+    private Graph graph;
+    private long size;
+    private final AtomicLong modified = new AtomicLong();
+
+    /** Start tracking the load of files in named graphs */
+    synchronized void start(List<String> files, boolean rdfs) {
+        entries.clear();
+        this.files = new ArrayList<>(files);
+        this.rdfs = rdfs;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        files = List.of();
+        if (graph != null) {
+            graph.removeListener(this);
+            graph = null;
+        }
+    }
+
+    /** The tracked Reload is complete, record the changes of the graph from now on */
+    synchronized void done(Graph g) {
+        if (graph != g) {
+            if (graph != null) {
+                graph.removeListener(this);
+            }
+            g.addListener(this);
+            graph = g;
+        }
+        size = g.size();
+        modified.set(0);
+    }
+
+    /** The graph changed since the last tracked Reload, the entailment graph aside */
+    synchronized boolean isModified() {
+        // with RDFS the entailment graph grows on the first query, its size is not known
+        return graph == null || modified.get() > 0 || (!rdfs && graph.size() != size);
+    }
+
+    /** modified and size are read before the hash so that a later change is not missed */
+    synchronized void put(
+            String path, long modified, long size, String hash, Set<String> graphs) {
+        entries.put(path, new Entry(modified, size, hash, graphs));
+    }
+
+    synchronized void remove(String path) {
+        entries.remove(path);
+    }
+
+    synchronized Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * Files to parse again, in list order, or null when Reload must be complete. A file that
+     * shares a named graph with a changed file is parsed again as the graph is dropped.
+     */
+    synchronized List<String> changed(List<String> list, boolean rdfs) throws IOException {
+        if (!list.equals(files)
+                || this.rdfs != rdfs
+                || !entries.keySet().containsAll(list)
+                || isModified()) {
+            return null;
+        }
+        Set<String> changed = new HashSet<>();
+        Set<String> graphs = new HashSet<>();
+        for (String path : list) {
+            File file = new File(path);
+            if (!file.isFile()) {
+                return null;
+            }
+            Entry entry = entries.get(path);
+            if (entry.isSame(file)) {
+                continue;
+            }
+            long modified = file.lastModified();
+            long size = file.length();
+            String hash = hash(path);
+            if (hash.equals(entry.hash)) {
+                // touched but not changed, do not hash it again
+                entries.put(path, new Entry(modified, size, hash, entry.graphs));
+            } else {
+                changed.add(path);
+                graphs.addAll(entry.graphs);
+            }
+        }
+        boolean more = true;
+        while (more) {
+            more = false;
+            for (String path : list) {
+                Entry entry = entries.get(path);
+                if (!changed.contains(path) && entry.graphs.stream().anyMatch(graphs::contains)) {
+                    changed.add(path);
+                    graphs.addAll(entry.graphs);
+                    more = true;
+                }
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String path : list) {
+            if (changed.contains(path)) {
+                result.add(path);
+            }
+        }
+        return result;
+    }
+
+    /** Named graphs of the files to parse again */
+    synchronized Set<String> graphs(List<String> paths) {
+        Set<String> graphs = new LinkedHashSet<>();
+        for (String path : paths) {
+            graphs.addAll(entries.get(path).graphs);
+        }
+        return graphs;
+    }
+
+    void record(Edge edge) {
+        if (edge.getGraph() == null || !MainFrame.ENTAILMENT.equals(edge.getGraph().getLabel())) {
+            modified.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void addSource(Graph g) {}
+
+    @Override
+    public boolean onInsert(Graph g, Edge edge) {
+        return true;
+    }
+
+    @Override
+    public void insert(Graph g, Edge edge) {
+        record(edge);
+    }
+
+    @Override
+    public void delete(Graph g, Edge edge) {
+        record(edge);
+    }
+
+    @Override
+    public void start(Graph g, Query q) {}
+
+    @Override
+    public void finish(Graph g, Query q, Mappings map) {}
+
+    @Override
+    public void load(String path) {}
+
+    /** SHA-256 of the content of the file */
+    static String hash(String path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        byte[] buffer = new byte[BUFFER];
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
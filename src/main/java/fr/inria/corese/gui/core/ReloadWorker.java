@@ -0,0 +1,74 @@
+package fr.inria.corese.gui.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.gui.query.GraphEngine;
+
+/**
+ * Reload of RDF files that records their content hash and named graphs in the ReloadTracker.
+ * Each file is parsed in a staging graph which is merged into the engine graph. The named
+ * graphs of the files to parse again are dropped first.
+ */
+class ReloadWorker extends LoadWorker {
+
+    private final ReloadTracker tracker;
+    private final Set<String> drop;
+
+    /** drop: named graphs to drop before parsing, empty for a complete Reload */
+    ReloadWorker(
+            MainFrame frame,
+            GraphEngine engine,
+            List<String> paths,
+            ReloadTracker tracker,
+            Set<String> drop) {
+        super(frame, engine, paths);
+        this.tracker = tracker;
+        this.drop = drop;
+    }
+
+    @Override
+    protected List<String> doInBackground() {
+        if (!drop.isEmpty()) {
+            try {
+                getEngine().drop(drop);
+                publish(String.format("Dropped %s named graph(s)%s", drop.size(), NL));
+            } catch (EngineException ex) {
+                // the tracker is not consistent with the graph any more
+                tracker.clear();
+                publish(ex.toString() + NL);
+                return getLoaded();
+            }
+        }
+        return super.doInBackground();
+    }
+
+    // files are parsed one by one to record their named graphs
+    @Override
+    boolean isParallel() {
+        return false;
+    }
+
+    @Override
+    void load(String path) throws EngineException, LoadException, IOException {
+        tracker.remove(path);
+        File file = new File(path);
+        long modified = file.lastModified();
+        long size = file.length();
+        String hash = ReloadTracker.hash(path);
+        Graph g = getEngine().parse(path);
+        Set<String> graphs = new LinkedHashSet<>();
+        for (Node node : g.getGraphNodes()) {
+            graphs.add(node.getLabel());
+        }
+        getEngine().merge(g);
+        tracker.put(path, modified, size, hash, graphs);
+    }
+}
@@ -7,8 +7,10 @@ import java.awt.FlowLayout;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.JCheckBox;
 import javax.swing.JPanel;
 import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
 
 import fr.inria.corese.gui.core.MainFrame;
 import fr.inria.corese.gui.editor.button.ClearButton;
@@ -17,6 +19,7 @@ import fr.inria.corese.gui.editor.button.SaveButton;
 import fr.inria.corese.gui.editor.button.SyntaxCheckButton;
 import fr.inria.corese.gui.editor.button.ValidateShaclButton;
 import fr.inria.corese.gui.editor.pane.EditorPane;
+import fr.inria.corese.gui.editor.pane.ReportPane;
 import fr.inria.corese.gui.editor.pane.ResultPane;
 
 public class ShaclEditor extends JPanel {
@@ -27,11 +30,19 @@ public class ShaclEditor extends JPanel {
 
     private EditorPane editorPane;
     private ResultPane resultPane;
+    private ReportPane reportPane;
+    // report and messages
+    private JTabbedPane bottomPane;
 
     public ShaclEditor(final MainFrame coreseFrame) {
         super();
         this.editorPane = new EditorPane("SHACL");
         this.resultPane = new ResultPane();
+        this.reportPane = new ReportPane();
+        this.bottomPane = new JTabbedPane();
+        this.bottomPane.addTab("Report", this.reportPane.getPane());
+        this.bottomPane.addTab("Messages", this.resultPane.getPane());
+        this.bottomPane.setSelectedIndex(1);
         this.mainFrame = coreseFrame;
         this.initComponents();
         this.initButtonsPanel();
@@ -48,7 +59,7 @@ public class ShaclEditor extends JPanel {
                 new JSplitPane(
                         JSplitPane.VERTICAL_SPLIT,
                         this.editorPane.getPane(),
-                        this.resultPane.getPane());
+                        this.bottomPane);
         splitPlane.setContinuousLayout(true);
 
         JPanel editorPanel = new JPanel();
@@ -84,9 +95,26 @@ public class ShaclEditor extends JPanel {
         buttonsPanel.add(syntaxButton);
 
         // Validate button
+        JCheckBox incremental = new JCheckBox("Incremental");
+        incremental.setToolTipText(
+                "Validate only the focus nodes of triples inserted or deleted since the last"
+                        + " validation");
+        JCheckBox parallel = new JCheckBox("Parallel");
+        parallel.setToolTipText("Evaluate shapes and chunks of focus nodes concurrently");
         ValidateShaclButton validateButton =
-                new ValidateShaclButton(this.editorPane, this.resultPane, this.mainFrame);
+                new ValidateShaclButton(
+                        this.editorPane,
+                        this.resultPane,
+                        this.mainFrame,
+                        incremental,
+                        parallel,
+                        report -> {
+                            this.reportPane.setReport(report);
+                            this.bottomPane.setSelectedIndex(0);
+                        });
         buttonsPanel.add(validateButton);
+        buttonsPanel.add(incremental);
+        buttonsPanel.add(parallel);
 
         buttonsPanel.add(Box.createRigidArea(new Dimension(15, 0)));
 
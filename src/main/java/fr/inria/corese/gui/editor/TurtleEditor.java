@@ -7,8 +7,12 @@ import java.awt.FlowLayout;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.JCheckBox;
 import javax.swing.JPanel;
 import javax.swing.JSplitPane;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import fr.inria.corese.gui.core.MainFrame;
 import fr.inria.corese.gui.editor.button.ClearButton;
@@ -18,16 +22,27 @@ import fr.inria.corese.gui.editor.button.SaveButton;
 import fr.inria.corese.gui.editor.button.SyntaxCheckButton;
 import fr.inria.corese.gui.editor.pane.EditorPane;
 import fr.inria.corese.gui.editor.pane.ResultPane;
+import fr.inria.corese.gui.util.GuiOptions;
+import fr.inria.corese.gui.util.TurtleChecker;
+import fr.inria.corese.gui.util.TurtleWorker;
 
 public class TurtleEditor extends JPanel {
 
     private static final long serialVersionUID = 1L;
+    // delay after the last edit before a live check, in ms
+    static final int DELAY = GuiOptions.intValue("turtle.delay", 50);
 
     private MainFrame mainFrame;
 
     private EditorPane editorPane;
     private ResultPane resultPane;
 
+    // live check: statement results are cached by the checker between edits
+    private JCheckBox liveCheck;
+    private TurtleChecker checker;
+    private TurtleWorker worker;
+    private Timer timer;
+
     public TurtleEditor(final MainFrame coreseFrame) {
         super();
         this.editorPane = new EditorPane("Turtle");
@@ -36,6 +51,7 @@ public class TurtleEditor extends JPanel {
         this.initComponents();
         this.initButtonsPanel();
         this.initEditorPanel();
+        this.initLiveCheck();
     }
 
     private void initComponents() {
@@ -58,6 +74,56 @@ public class TurtleEditor extends JPanel {
         add(editorPanel);
     }
 
+    private void initLiveCheck() {
+        this.checker = new TurtleChecker();
+        this.timer = new Timer(DELAY, e -> this.check());
+        this.timer.setRepeats(false);
+        this.editorPane.addDocumentListener(
+                new DocumentListener() {
+                    @Override
+                    public void insertUpdate(DocumentEvent e) {
+                        edited();
+                    }
+
+                    @Override
+                    public void removeUpdate(DocumentEvent e) {
+                        edited();
+                    }
+
+                    @Override
+                    public void changedUpdate(DocumentEvent e) {
+                        // attribute change
+                    }
+                });
+    }
+
+    private void edited() {
+        if (this.liveCheck.isSelected()) {
+            this.timer.restart();
+        }
+    }
+
+    private void check() {
+        if (this.worker != null) {
+            this.worker.cancel(true);
+        }
+        String content = this.editorPane.getContent();
+        if (!this.liveCheck.isSelected() || content.strip().isEmpty()) {
+            this.editorPane.clearMarkers();
+            return;
+        }
+        this.worker =
+                new TurtleWorker(
+                        this.checker,
+                        content,
+                        null,
+                        "Turtle is syntactically valid",
+                        d -> this.editorPane.addMarker(d.getLine(), d.getColumn(), d.getMessage()),
+                        this.resultPane::setContent);
+        this.worker.setClear(this.editorPane::clearMarkers);
+        this.worker.execute();
+    }
+
     private void initButtonsPanel() {
         JPanel buttonsPanel = new JPanel();
         buttonsPanel.setLayout(new FlowLayout());
@@ -83,6 +149,12 @@ public class TurtleEditor extends JPanel {
         SyntaxCheckButton syntaxButton = new SyntaxCheckButton(this.editorPane, this.resultPane);
         buttonsPanel.add(syntaxButton);
 
+        // Live check
+        this.liveCheck = new JCheckBox("Live check", GuiOptions.booleanValue("turtle.live", true));
+        this.liveCheck.setToolTipText("Check the syntax of edited statements while typing");
+        this.liveCheck.addActionListener(e -> this.check());
+        buttonsPanel.add(this.liveCheck);
+
         // Load button
         LoadButton loadButton = new LoadButton(this.editorPane, this.resultPane, this.mainFrame);
         buttonsPanel.add(loadButton);
@@ -35,6 +35,7 @@ public class ClearButton extends Button {
 
                         if (input == 0) {
                             ClearButton.this.editor.setContent("");
+                            ClearButton.this.editor.clearMarkers();
                             ClearButton.this.result.setContent("");
                         }
                     }
@@ -3,18 +3,19 @@ package fr.inria.corese.gui.editor.button;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
-import fr.inria.corese.core.load.Load;
-import fr.inria.corese.core.load.LoadException;
-import fr.inria.corese.core.sparql.exceptions.EngineException;
+import javax.swing.SwingUtilities;
+
 import fr.inria.corese.gui.core.MainFrame;
 import fr.inria.corese.gui.editor.pane.EditorPane;
 import fr.inria.corese.gui.editor.pane.ResultPane;
+import fr.inria.corese.gui.util.TurtleWorker;
 
 public class LoadButton extends Button {
 
     private EditorPane editor;
     private ResultPane result;
     private MainFrame mainFrame;
+    private TurtleWorker worker;
 
     public LoadButton(EditorPane editor, ResultPane result, final MainFrame coreseFrame) {
         super("Load");
@@ -40,22 +41,42 @@ public class LoadButton extends Button {
                             return;
                         }
 
-                        // Load editor content in Corese
-                        try {
-                            LoadButton.this
-                                    .mainFrame
-                                    .getMyCorese()
-                                    .loadRDF(editorContent, Load.format.TURTLE_FORMAT);
-                        } catch (EngineException | LoadException e1) {
-                            e1.printStackTrace();
+                        // one load at a time
+                        if (worker != null && !worker.isDone()) {
                             return;
                         }
 
-                        // Confirmation
-                        result.setContent("Document is loaded in Corese");
-                        LoadButton.this.mainFrame.appendMsg("Loaded from editor …");
+                        // Check editor content in background, then load it with the other loads
+                        // of Corese, a document with errors is not loaded
+                        editor.clearMarkers();
+                        result.setContent("Loading…");
+                        worker =
+                                new TurtleWorker(
+                                        editorContent,
+                                        document ->
+                                                SwingUtilities.invokeLater(() -> load(document)),
+                                        "Document is valid, loading in Corese…",
+                                        d ->
+                                                editor.addMarker(
+                                                        d.getLine(),
+                                                        d.getColumn(),
+                                                        d.getMessage()),
+                                        result::setContent);
+                        worker.execute();
                     }
                 };
         return buttonLoadListener;
     }
+
+    /** Load the checked document on the load executor of the frame */
+    void load(String document) {
+        mainFrame.loadTurtle(
+                document,
+                "editor",
+                loaded ->
+                        result.setContent(
+                                loaded
+                                        ? "Document is loaded in Corese"
+                                        : "Error : see the System tab"));
+    }
 }
@@ -3,16 +3,15 @@ package fr.inria.corese.gui.editor.button;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
-import fr.inria.corese.core.Graph;
-import fr.inria.corese.core.load.Load;
-import fr.inria.corese.core.load.LoadException;
 import fr.inria.corese.gui.editor.pane.EditorPane;
 import fr.inria.corese.gui.editor.pane.ResultPane;
+import fr.inria.corese.gui.util.TurtleWorker;
 
 public class SyntaxCheckButton extends Button {
 
     private EditorPane editorPane;
     private ResultPane resultPane;
+    private TurtleWorker worker;
 
     public SyntaxCheckButton(EditorPane editorPane, ResultPane resultPane) {
         super("Check syntax");
@@ -37,16 +36,26 @@ public class SyntaxCheckButton extends Button {
                             return;
                         }
 
-                        // Try to load Turtle file
-                        Graph turtleGraph = Graph.create();
-                        Load ld = Load.create(turtleGraph);
-                        try {
-                            ld.loadString(editorTurtleContent, Load.format.TURTLE_FORMAT);
-                            resultPane.setContent("Turtle is syntactically valid");
-                        } catch (LoadException e1) {
-                            resultPane.setContent(e1.getMessage());
-                            return;
+                        // A new check replaces the running one
+                        if (worker != null) {
+                            worker.cancel(true);
                         }
+
+                        // Parse in background, errors are streamed to the editor
+                        editorPane.clearMarkers();
+                        resultPane.setContent("Checking…");
+                        worker =
+                                new TurtleWorker(
+                                        editorTurtleContent,
+                                        null,
+                                        "Turtle is syntactically valid",
+                                        d ->
+                                                editorPane.addMarker(
+                                                        d.getLine(),
+                                                        d.getColumn(),
+                                                        d.getMessage()),
+                                        resultPane::setContent);
+                        worker.execute();
                     }
                 };
         return buttonSyntaxListener;
@@ -2,29 +2,44 @@ package fr.inria.corese.gui.editor.button;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.function.Consumer;
+
+import javax.swing.JCheckBox;
 
 import fr.inria.corese.core.Graph;
-import fr.inria.corese.core.load.Load;
-import fr.inria.corese.core.load.LoadException;
-import fr.inria.corese.core.shacl.Shacl;
-import fr.inria.corese.core.sparql.exceptions.EngineException;
-import fr.inria.corese.core.transform.Transformer;
 import fr.inria.corese.gui.core.MainFrame;
 import fr.inria.corese.gui.editor.pane.EditorPane;
 import fr.inria.corese.gui.editor.pane.ResultPane;
+import fr.inria.corese.gui.util.ShaclValidator;
+import fr.inria.corese.gui.util.ShaclWorker;
 
 public class ValidateShaclButton extends Button {
 
     private EditorPane editorPane;
     private ResultPane resultPane;
     private MainFrame mainFrame;
+    // validate only the focus nodes touched since the last validation
+    private JCheckBox incremental;
+    // complete validation on ShaclValidator.THREADS threads
+    private JCheckBox parallel;
+    // structured report display
+    private Consumer<ShaclValidator.Report> report;
+    private ShaclWorker worker;
 
     public ValidateShaclButton(
-            EditorPane editorPane, ResultPane resultPane, final MainFrame coreseFrame) {
+            EditorPane editorPane,
+            ResultPane resultPane,
+            final MainFrame coreseFrame,
+            JCheckBox incremental,
+            JCheckBox parallel,
+            Consumer<ShaclValidator.Report> report) {
         super("Validate");
         this.editorPane = editorPane;
         this.resultPane = resultPane;
         this.mainFrame = coreseFrame;
+        this.incremental = incremental;
+        this.parallel = parallel;
+        this.report = report;
     }
 
     @Override
@@ -45,32 +60,26 @@ public class ValidateShaclButton extends Button {
                             return;
                         }
 
-                        // Try to load SHACL file
-                        Graph shapeGraph = Graph.create();
-                        Load ld = Load.create(shapeGraph);
-                        try {
-                            ld.loadString(editorShaclContent, Load.format.TURTLE_FORMAT);
-                        } catch (LoadException e1) {
-                            resultPane.setContent("Error : malformed SHACL document.");
-                            e1.printStackTrace();
-                            return;
-                        }
-
-                        // Eval
-                        Shacl shacl = new Shacl(coreseGraph, shapeGraph);
-
-                        Graph result = null;
-                        try {
-                            result = shacl.eval();
-                        } catch (EngineException e2) {
-                            resultPane.setContent("Error : engine exception.");
-                            e2.printStackTrace();
+                        // one validation at a time
+                        if (worker != null && !worker.isDone()) {
                             return;
                         }
 
-                        // Format and export result
-                        Transformer transformer = Transformer.create(result, Transformer.TURTLE);
-                        resultPane.setContent(transformer.toString());
+                        // Parse (unless cached) and eval in background
+                        resultPane.setContent("Validating…");
+                        ShaclValidator validator = mainFrame.getShaclValidator();
+                        validator.setParallelism(
+                                parallel.isSelected() ? ShaclValidator.THREADS : 0);
+                        worker =
+                                new ShaclWorker(
+                                        mainFrame,
+                                        validator,
+                                        coreseGraph,
+                                        editorShaclContent,
+                                        incremental.isSelected(),
+                                        resultPane::setContent,
+                                        report);
+                        worker.execute();
                     }
                 };
         return buttonValidateListener;
@@ -3,6 +3,14 @@ package fr.inria.corese.gui.editor.pane;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
@@ -10,10 +18,19 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextPane;
 import javax.swing.KeyStroke;
+import javax.swing.ToolTipManager;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Highlighter;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.Position;
+import javax.swing.text.View;
 import javax.swing.undo.*;
 
 import org.apache.logging.log4j.LogManager;
@@ -29,10 +46,27 @@ public class EditorPane {
     private String title;
     private UndoManager undoManager;
     private int old_line_number;
+    // syntax error messages by line number, highlighted in the line counter
+    private Map<Integer, String> markers;
+    private Highlighter.HighlightPainter markerPainter;
+    // error tokens underlined in the editor
+    private List<Object> underlines;
+    private Highlighter.HighlightPainter underlinePainter;
 
     public EditorPane(String title) {
         this.editor = new JTextPane();
-        this.lineCounter = new JTextArea(10, 1);
+        this.lineCounter =
+                new JTextArea(10, 1) {
+                    @Override
+                    public String getToolTipText(MouseEvent e) {
+                        return marker(e);
+                    }
+                };
+        this.markers = new TreeMap<>();
+        this.markerPainter =
+                new DefaultHighlighter.DefaultHighlightPainter(new Color(255, 170, 170));
+        this.underlines = new ArrayList<>();
+        this.underlinePainter = new UnderlinePainter(Color.RED);
         this.font = new Font("Sanserif", Font.BOLD, 16);
         this.undoManager = new UndoManager();
         this.title = title;
@@ -47,6 +81,7 @@ public class EditorPane {
         this.lineCounter.setBackground(new Color(230, 230, 230));
         this.lineCounter.setFont(this.font);
         this.lineCounter.setText("\n1");
+        ToolTipManager.sharedInstance().registerComponent(this.lineCounter);
     }
 
     private void initEditor() {
@@ -81,6 +116,7 @@ public class EditorPane {
                                     lineCounter.setText(text);
 
                                     lineCounter.setColumns(Integer.toString(nb_line - 1).length());
+                                    paintMarkers();
                                 }
                             }
 
@@ -141,6 +177,125 @@ public class EditorPane {
                         });
     }
 
+    /**
+     * Mark a line with an error message and underline the token at the column, line and column
+     * start at 1
+     */
+    public void addMarker(int line, int column, String message) {
+        this.markers.merge(line, message, (m1, m2) -> m1 + " | " + m2);
+        this.paintMarkers();
+        this.underline(line, column);
+    }
+
+    public void clearMarkers() {
+        this.markers.clear();
+        this.paintMarkers();
+        Highlighter highlighter = this.editor.getHighlighter();
+        for (Object tag : this.underlines) {
+            highlighter.removeHighlight(tag);
+        }
+        this.underlines.clear();
+    }
+
+    private void underline(int line, int column) {
+        Document document = this.editor.getDocument();
+        Element root = document.getDefaultRootElement();
+        if (line < 1 || line > root.getElementCount()) {
+            return;
+        }
+        Element element = root.getElement(line - 1);
+        // the line without its line break
+        int lineStart = element.getStartOffset();
+        int lineEnd = Math.min(element.getEndOffset() - 1, document.getLength());
+        try {
+            String text = document.getText(lineStart, lineEnd - lineStart);
+            int start = Math.max(0, Math.min(column - 1, text.length() - 1));
+            int end = start;
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            if (end == start) {
+                end = Math.min(start + 1, text.length());
+            }
+            if (start < end) {
+                this.underlines.add(
+                        this.editor
+                                .getHighlighter()
+                                .addHighlight(
+                                        lineStart + start,
+                                        lineStart + end,
+                                        this.underlinePainter));
+            }
+        } catch (BadLocationException ex) {
+            logger.warn("Unable to underline line " + line + ": " + ex);
+        }
+    }
+
+    private void paintMarkers() {
+        Highlighter highlighter = this.lineCounter.getHighlighter();
+        highlighter.removeAllHighlights();
+        // line n of the line counter displays n as it starts with an empty line
+        for (int line : this.markers.keySet()) {
+            if (line >= this.lineCounter.getLineCount()) {
+                break;
+            }
+            try {
+                highlighter.addHighlight(
+                        this.lineCounter.getLineStartOffset(line),
+                        this.lineCounter.getLineEndOffset(line),
+                        this.markerPainter);
+            } catch (BadLocationException ex) {
+                logger.warn("Unable to mark line " + line + ": " + ex);
+            }
+        }
+    }
+
+    private String marker(MouseEvent e) {
+        int offset = this.lineCounter.viewToModel2D(e.getPoint());
+        try {
+            return this.markers.get(this.lineCounter.getLineOfOffset(offset));
+        } catch (BadLocationException ex) {
+            return null;
+        }
+    }
+
+    /** Wavy line under the text, as spell checkers do */
+    static class UnderlinePainter extends DefaultHighlighter.DefaultHighlightPainter {
+
+        UnderlinePainter(Color color) {
+            super(color);
+        }
+
+        @Override
+        public Shape paintLayer(
+                Graphics g, int offs0, int offs1, Shape bounds, JTextComponent c, View view) {
+            Rectangle r;
+            try {
+                r =
+                        view.modelToView(
+                                        offs0,
+                                        Position.Bias.Forward,
+                                        offs1,
+                                        Position.Bias.Backward,
+                                        bounds)
+                                .getBounds();
+            } catch (BadLocationException ex) {
+                return null;
+            }
+            g.setColor(getColor());
+            int y = r.y + r.height - 3;
+            for (int x = r.x; x < r.x + r.width; x += 4) {
+                g.drawLine(x, y, x + 2, y + 2);
+                g.drawLine(x + 2, y + 2, x + 4, y);
+            }
+            return r;
+        }
+    }
+
+    public void addDocumentListener(DocumentListener listener) {
+        this.editor.getDocument().addDocumentListener(listener);
+    }
+
     public String getContent() {
         return this.editor.getText();
     }
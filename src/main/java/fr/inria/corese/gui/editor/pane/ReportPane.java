@@ -0,0 +1,258 @@
+package fr.inria.corese.gui.editor.pane;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.table.AbstractTableModel;
+
+import fr.inria.corese.gui.util.GuiOptions;
+import fr.inria.corese.gui.util.ShaclValidator;
+
+/**
+ * SHACL validation report as tables. The results are grouped by shape, severity and path with
+ * their count, the results of the selected group are displayed page by page and a double click
+ * displays a result in Turtle. The report is never serialized as a whole.
+ */
+public class ReportPane {
+
+    static final int PAGE = GuiOptions.intValue("shacl.page", 1000);
+    static final String[] GROUP_COLUMNS = {"Shape", "Severity", "Path", "Results"};
+    static final String[] RESULT_COLUMNS = {"Focus node", "Value", "Message", "Constraint"};
+
+    /** Results of a shape, severity and path */
+    static class Group {
+        final String shape;
+        final String severity;
+        final String path;
+        final List<ShaclValidator.Result> results = new ArrayList<>();
+
+        Group(ShaclValidator.Result result) {
+            this.shape = result.getShape();
+            this.severity = result.getSeverity();
+            this.path = result.getPath();
+        }
+    }
+
+    private final GroupModel groupModel = new GroupModel();
+    private final ResultModel resultModel = new ResultModel();
+    private final JTable groupTable = new JTable(groupModel);
+    private final JTable resultTable = new JTable(resultModel);
+    private final JLabel summary = new JLabel(" ");
+    private final JLabel pageLabel = new JLabel(" ");
+    private final JButton previous = new JButton("<");
+    private final JButton next = new JButton(">");
+    private final JPanel panel = new JPanel(new BorderLayout());
+
+    public ReportPane() {
+        groupTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        groupTable.setAutoCreateRowSorter(true);
+        groupTable
+                .getSelectionModel()
+                .addListSelectionListener(
+                        e -> {
+                            if (!e.getValueIsAdjusting()) {
+                                int row = groupTable.getSelectedRow();
+                                resultModel.setGroup(
+                                        row < 0
+                                                ? null
+                                                : groupModel.getGroup(
+                                                        groupTable.convertRowIndexToModel(row)));
+                            }
+                        });
+        resultTable.addMouseListener(
+                new MouseAdapter() {
+                    @Override
+                    public void mouseClicked(MouseEvent e) {
+                        int row = resultTable.getSelectedRow();
+                        if (e.getClickCount() == 2 && row >= 0) {
+                            detail(resultModel.getResult(row));
+                        }
+                    }
+                });
+        previous.addActionListener(e -> resultModel.setPage(resultModel.page - 1));
+        next.addActionListener(e -> resultModel.setPage(resultModel.page + 1));
+
+        JPanel pager = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        pager.add(previous);
+        pager.add(pageLabel);
+        pager.add(next);
+        JPanel results = new JPanel(new BorderLayout());
+        results.add(new JScrollPane(resultTable), BorderLayout.CENTER);
+        results.add(pager, BorderLayout.SOUTH);
+        JSplitPane split =
+                new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(groupTable), results);
+        split.setResizeWeight(0.4);
+        panel.add(summary, BorderLayout.NORTH);
+        panel.add(split, BorderLayout.CENTER);
+        resultModel.setGroup(null);
+    }
+
+    /** Display the report, groups with most results first */
+    public void setReport(ShaclValidator.Report report) {
+        Map<List<String>, Group> map = new LinkedHashMap<>();
+        for (ShaclValidator.Result result : report.getResults()) {
+            List<String> key =
+                    List.of(
+                            Objects.toString(result.getShape(), ""),
+                            Objects.toString(result.getSeverity(), ""),
+                            Objects.toString(result.getPath(), ""));
+            map.computeIfAbsent(key, k -> new Group(result)).results.add(result);
+        }
+        List<Group> groups = new ArrayList<>(map.values());
+        groups.sort((g1, g2) -> Integer.compare(g2.results.size(), g1.results.size()));
+        summary.setText(
+                String.format(
+                        "Conforms: %s, %,d result(s), %,d focus node(s), %,d group(s)",
+                        report.isConforms(),
+                        report.size(),
+                        report.getFocusCount(),
+                        groups.size()));
+        groupTable.getRowSorter().setSortKeys(null);
+        groupModel.setGroups(groups);
+        if (groups.isEmpty()) {
+            resultModel.setGroup(null);
+        } else {
+            groupTable.setRowSelectionInterval(0, 0);
+        }
+    }
+
+    void detail(ShaclValidator.Result result) {
+        JTextArea text = new JTextArea(result.toTurtle(), 10, 80);
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JOptionPane.showMessageDialog(
+                panel, new JScrollPane(text), "Validation result", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    public JPanel getPane() {
+        return panel;
+    }
+
+    class GroupModel extends AbstractTableModel {
+
+        private static final long serialVersionUID = 1L;
+        private List<Group> groups = List.of();
+
+        void setGroups(List<Group> groups) {
+            this.groups = groups;
+            fireTableDataChanged();
+        }
+
+        Group getGroup(int row) {
+            return groups.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return groups.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return GROUP_COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int col) {
+            return GROUP_COLUMNS[col];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int col) {
+            return col == 3 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            Group group = groups.get(row);
+            switch (col) {
+                case 0:
+                    return group.shape;
+                case 1:
+                    return group.severity;
+                case 2:
+                    return group.path;
+                default:
+                    return group.results.size();
+            }
+        }
+    }
+
+    /** One page of the results of a group */
+    class ResultModel extends AbstractTableModel {
+
+        private static final long serialVersionUID = 1L;
+        private List<ShaclValidator.Result> results = List.of();
+        private int page = 0;
+
+        void setGroup(Group group) {
+            results = group == null ? List.of() : group.results;
+            setPage(0);
+        }
+
+        void setPage(int n) {
+            page = Math.max(0, Math.min(n, (results.size() - 1) / PAGE));
+            int start = page * PAGE;
+            pageLabel.setText(
+                    results.isEmpty()
+                            ? "No result"
+                            : String.format(
+                                    "%,d – %,d of %,d",
+                                    start + 1, start + getRowCount(), results.size()));
+            previous.setEnabled(page > 0);
+            next.setEnabled(start + PAGE < results.size());
+            fireTableDataChanged();
+        }
+
+        ShaclValidator.Result getResult(int row) {
+            return results.get(page * PAGE + row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return Math.max(0, Math.min(PAGE, results.size() - page * PAGE));
+        }
+
+        @Override
+        public int getColumnCount() {
+            return RESULT_COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int col) {
+            return RESULT_COLUMNS[col];
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            ShaclValidator.Result result = getResult(row);
+            switch (col) {
+                case 0:
+                    return result.getFocus();
+                case 1:
+                    return result.getValue();
+                case 2:
+                    return result.getMessage();
+                default:
+                    return result.getComponent();
+            }
+        }
+    }
+}
@@ -1,11 +1,36 @@
 package fr.inria.corese.gui.event;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import fr.inria.corese.core.kgram.event.EvalListener;
+import fr.inria.corese.core.kgram.event.Event;
 import fr.inria.corese.gui.core.MainFrame;
 
 /** KGRAM Eval Listener Interact with GUI through a synchronized buffer */
 public class MyEvalListener extends EvalListener {
+
+    /** Event types of the corese.gui.trace.events filter */
+    public static final Map<String, Integer> EVENTS = new LinkedHashMap<>();
+
+    static {
+        EVENTS.put("START", Event.START);
+        EVENTS.put("BEGIN", Event.BEGIN);
+        EVENTS.put("ENUM", Event.ENUM);
+        EVENTS.put("MATCH", Event.MATCH);
+        EVENTS.put("FILTER", Event.FILTER);
+        EVENTS.put("BIND", Event.BIND);
+        EVENTS.put("PATH", Event.PATH);
+        EVENTS.put("END", Event.END);
+        EVENTS.put("FINISH", Event.FINISH);
+    }
+
     MainFrame frame;
+    // when set, events are written to the trace file instead of the GUI
+    private TraceRecorder recorder;
+    // record one event out of sample
+    private int sample = 1;
+    private long count = 0;
 
     public static MyEvalListener create() {
         MyEvalListener el = new MyEvalListener();
@@ -16,7 +41,45 @@ public class MyEvalListener extends EvalListener {
         frame = mf;
     }
 
+    public void setRecorder(TraceRecorder recorder, int sample) {
+        this.recorder = recorder;
+        this.sample = Math.max(1, sample);
+    }
+
+    public TraceRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Handle the event types of the comma separated list of names, all events when the list is
+     * empty. Return false when a name is unknown.
+     */
+    public boolean handle(String events) {
+        if (events == null || events.isBlank()) {
+            handle(Event.ALL, true);
+            return true;
+        }
+        boolean ok = true;
+        for (String name : events.split(",")) {
+            Integer sort = EVENTS.get(name.trim().toUpperCase());
+            if (sort == null) {
+                ok = false;
+            } else {
+                handle(sort, true);
+            }
+        }
+        return ok;
+    }
+
     public void log(Object obj) {
+        if (recorder != null) {
+            // the event is copied here, the recorder thread formats the copy
+            if (count++ % sample == 0) {
+                recorder.record(
+                        obj instanceof Event ? TraceEvent.create((Event) obj) : obj.toString());
+            }
+            return;
+        }
         String str = obj.toString();
         // OC:
         super.log(obj);
@@ -0,0 +1,148 @@
+package fr.inria.corese.gui.event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.inria.corese.core.kgram.api.core.ExpType;
+import fr.inria.corese.core.kgram.core.Exp;
+import fr.inria.corese.core.kgram.event.EvalListener;
+import fr.inria.corese.core.kgram.event.Event;
+
+/**
+ * KGRAM Eval Listener that profiles a query without interaction: it counts the events of each
+ * triple pattern, filter and service of the query. The time between an event and the next one is
+ * charged to the expression of the first event, hence the time of an expression is the time spent
+ * to enumerate and match its candidates, not the time of the expressions it encloses.
+ */
+public class ProfileListener extends EvalListener {
+
+    static final int MAX_LABEL = 200;
+
+    /** Counters of an expression of the query */
+    public static class Stat {
+        private final String kind;
+        private final String label;
+        private long invocations;
+        private long candidates;
+        private long results;
+        private long time;
+
+        Stat(String kind, String label) {
+            this.kind = kind;
+            this.label = label;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /** Candidate edges enumerated */
+        public long getCandidates() {
+            return candidates;
+        }
+
+        /** Candidate edges that match */
+        public long getResults() {
+            return results;
+        }
+
+        /** Cumulative time in ns */
+        public long getTime() {
+            return time;
+        }
+    }
+
+    // the same Exp object is sent for each evaluation of an expression
+    private final Map<Object, Stat> stats = new IdentityHashMap<>();
+    private Stat last;
+    private long lastTime;
+
+    public static ProfileListener create() {
+        ProfileListener el = new ProfileListener();
+        el.handle(Event.ALL, true);
+        return el;
+    }
+
+    /** Count the event and never wait for the user */
+    @Override
+    public boolean send(Event event) {
+        long now = System.nanoTime();
+        if (last != null) {
+            last.time += now - lastTime;
+        }
+        last = stat(event);
+        lastTime = now;
+        if (last != null) {
+            switch (event.getSort()) {
+                case Event.ENUM:
+                    last.candidates++;
+                    break;
+                case Event.MATCH:
+                    last.results++;
+                    break;
+                case Event.BEGIN:
+                case Event.FILTER:
+                    last.invocations++;
+                    break;
+                default:
+            }
+        }
+        return true;
+    }
+
+    /** Counters of the expression of the event, null when it is not profiled */
+    Stat stat(Event event) {
+        Object obj = event.getObject();
+        if (obj == null) {
+            return null;
+        }
+        Stat stat = stats.get(obj);
+        if (stat == null) {
+            String kind = kind(event.getSort(), obj);
+            if (kind == null) {
+                return null;
+            }
+            stat = new Stat(kind, label(obj));
+            stats.put(obj, stat);
+        }
+        return stat;
+    }
+
+    static String kind(int sort, Object obj) {
+        if (obj instanceof Exp) {
+            Exp exp = (Exp) obj;
+            if (exp.isEdge()) {
+                return "triple";
+            } else if (exp.isFilter()) {
+                return "filter";
+            } else if (exp.type() == ExpType.SERVICE) {
+                return "service";
+            }
+            return null;
+        }
+        return sort == Event.FILTER ? "filter" : null;
+    }
+
+    static String label(Object obj) {
+        String str = obj.toString().replaceAll("\\s+", " ").trim();
+        return str.length() > MAX_LABEL ? str.substring(0, MAX_LABEL) + "…" : str;
+    }
+
+    /** Counters of the expressions, most expensive first */
+    public List<Stat> getStats() {
+        List<Stat> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparingLong(Stat::getTime).reversed());
+        return list;
+    }
+}
@@ -0,0 +1,61 @@
+package fr.inria.corese.gui.event;
+
+import java.util.Map;
+
+import fr.inria.corese.core.kgram.api.query.Environment;
+import fr.inria.corese.core.kgram.event.Event;
+
+/**
+ * Immutable copy of a KGRAM event for the trace file. KGRAM reuses the edges and the environment
+ * of an event once the listener returns, so the arguments and the current bindings are converted
+ * to strings on the query thread. The expression of the query does not change during the run, it
+ * is kept by reference and the line is formatted by the recorder thread.
+ */
+final class TraceEvent {
+
+    private final int sort;
+    private final Object exp;
+    private final String arg;
+    private final String bindings;
+
+    private TraceEvent(int sort, Object exp, String arg, String bindings) {
+        this.sort = sort;
+        this.exp = exp;
+        this.arg = arg;
+        this.bindings = bindings;
+    }
+
+    static TraceEvent create(Event event) {
+        Object arg = event.getArg(0);
+        Environment env = event.getEnvironment();
+        return new TraceEvent(
+                event.getSort(),
+                event.getObject(),
+                arg == null ? null : arg.toString(),
+                env == null ? null : env.toString());
+    }
+
+    static String name(int sort) {
+        for (Map.Entry<String, Integer> entry : MyEvalListener.EVENTS.entrySet()) {
+            if (entry.getValue() == sort) {
+                return entry.getKey();
+            }
+        }
+        return "EVENT " + sort;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name(sort));
+        if (exp != null) {
+            sb.append(' ').append(exp);
+        }
+        if (arg != null) {
+            sb.append(' ').append(arg);
+        }
+        if (bindings != null && !bindings.isEmpty()) {
+            sb.append(" | ").append(bindings);
+        }
+        return sb.toString();
+    }
+}
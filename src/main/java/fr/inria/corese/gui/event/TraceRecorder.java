@@ -0,0 +1,147 @@
+package fr.inria.corese.gui.event;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Trace of a query written to a file. Producers put immutable events, e.g. TraceEvent, in a
+ * lock-free ring buffer of corese.gui.trace.buffer slots (default 65536), a consumer thread
+ * converts them to text and writes them to the file. When the buffer is full the event is dropped
+ * instead of slowing the query down, the number of dropped events is reported.
+ */
+public class TraceRecorder {
+
+    private static final Logger logger = LogManager.getLogger(TraceRecorder.class.getName());
+    static final int BUFFER = 1 << 16;
+    // consumer sleep when the buffer is empty
+    static final long PARK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path path;
+    private final AtomicReferenceArray<Object> slots;
+    private final int mask;
+    // next slot to read, written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // next slot to write
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread consumer;
+    private volatile boolean closed = false;
+    private long written = 0;
+    private IOException error;
+
+    TraceRecorder(Path path, int size) throws IOException {
+        this.path = path;
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        consumer = new Thread(() -> consume(out), "corese-trace");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Recorder writing to a new file of the directory corese.gui.trace.dir, default is the
+     * temporary directory where the file is deleted on exit.
+     */
+    public static TraceRecorder create() throws IOException {
+        String dir = GuiOptions.stringValue("trace.dir", null);
+        Path path;
+        if (dir == null) {
+            path = Files.createTempFile("corese-trace-", ".log");
+            path.toFile().deleteOnExit();
+        } else {
+            path = Files.createTempFile(Paths.get(dir), "corese-trace-", ".log");
+        }
+        return new TraceRecorder(path, GuiOptions.intValue("trace.buffer", BUFFER));
+    }
+
+    /** Put the event in the buffer, return false when it is dropped */
+    public boolean record(Object event) {
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() >= slots.length()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int) t & mask, event);
+                return true;
+            }
+        }
+    }
+
+    void consume(Writer writer) {
+        try (BufferedWriter out = new BufferedWriter(writer)) {
+            while (true) {
+                long h = head.get();
+                int index = (int) h & mask;
+                Object event = slots.get(index);
+                if (event == null) {
+                    // empty, or the producer did not set the slot it claimed yet
+                    if (closed && h == tail.get()) {
+                        break;
+                    }
+                    out.flush();
+                    LockSupport.parkNanos(PARK);
+                    continue;
+                }
+                slots.lazySet(index, null);
+                head.lazySet(h + 1);
+                out.write(event.toString().replace('\n', ' '));
+                out.write('\n');
+                written++;
+            }
+        } catch (IOException ex) {
+            error = ex;
+            logger.error(ex);
+            // release the producers
+            closed = true;
+        }
+    }
+
+    /** Write the remaining events and close the file */
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Number of events written, once closed */
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,231 @@
+package fr.inria.corese.gui.event;
+
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Browse a trace file written by TraceRecorder. The file is scanned once in background to index
+ * the offsets of the lines that contain the filter, the list reads only the lines it displays.
+ */
+public class TraceViewer extends JDialog {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LogManager.getLogger(TraceViewer.class.getName());
+    static final int BUFFER = 1 << 16;
+    // longest line displayed
+    static final int MAX_LINE = 4096;
+
+    private final Path path;
+    private final LineModel model = new LineModel();
+    private final JTextField filter = new JTextField();
+    private final JLabel status = new JLabel(" ");
+    private RandomAccessFile file;
+    private IndexWorker worker;
+
+    public TraceViewer(JFrame owner, Path path) {
+        super(owner, "Trace " + path.getFileName(), false);
+        this.path = path;
+        JList<String> list = new JList<>(model);
+        list.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        // fixed cell size: the list does not read every line to compute its size
+        list.setPrototypeCellValue("x".repeat(120));
+        filter.setToolTipText("Display the lines that contain this text");
+        filter.addActionListener(e -> index(filter.getText()));
+        JPanel top = new JPanel(new BorderLayout(5, 5));
+        top.add(new JLabel("Filter:"), BorderLayout.WEST);
+        top.add(filter, BorderLayout.CENTER);
+        setLayout(new BorderLayout());
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(list), BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
+        setSize(900, 600);
+        setLocationRelativeTo(owner);
+        index("");
+    }
+
+    void index(String text) {
+        if (worker != null) {
+            worker.cancel(false);
+        }
+        model.setOffsets(new long[0], 0);
+        status.setText("Indexing…");
+        worker = new IndexWorker(text);
+        worker.execute();
+    }
+
+    String line(long offset) {
+        try {
+            if (file == null) {
+                file = new RandomAccessFile(path.toFile(), "r");
+            }
+            file.seek(offset);
+            byte[] bytes = new byte[MAX_LINE];
+            int n = Math.max(0, file.read(bytes));
+            int end = 0;
+            while (end < n && bytes[end] != '\n') {
+                end++;
+            }
+            return new String(bytes, 0, end, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            logger.error(ex);
+            return ex.toString();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (worker != null) {
+            worker.cancel(false);
+        }
+        try {
+            if (file != null) {
+                file.close();
+                file = null;
+            }
+        } catch (IOException ex) {
+            logger.warn(ex);
+        }
+        super.dispose();
+    }
+
+    /** Lines of the trace that contain the filter, read on demand */
+    class LineModel extends AbstractListModel<String> {
+
+        private static final long serialVersionUID = 1L;
+        private long[] offsets = new long[0];
+        private int size = 0;
+
+        void setOffsets(long[] offsets, int size) {
+            int previous = this.size;
+            this.offsets = offsets;
+            this.size = size;
+            if (size < previous) {
+                fireIntervalRemoved(this, size, previous - 1);
+            } else if (size > previous) {
+                fireIntervalAdded(this, previous, size - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return line(offsets[index]);
+        }
+    }
+
+    /** Offsets of the matching lines, the list grows as the file is scanned */
+    class IndexWorker extends SwingWorker<Integer, Integer> {
+
+        private final byte[] pattern;
+        private long[] offsets = new long[BUFFER];
+        private int size = 0;
+        private long lines = 0;
+
+        IndexWorker(String text) {
+            pattern = text.isEmpty() ? null : text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected Integer doInBackground() throws IOException {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER)) {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                long offset = 0;
+                long start = 0;
+                for (int c = in.read(); c >= 0 && !isCancelled(); c = in.read()) {
+                    offset++;
+                    if (c != '\n') {
+                        if (pattern != null) {
+                            line.write(c);
+                        }
+                        continue;
+                    }
+                    lines++;
+                    if (pattern == null || contains(line.toByteArray(), pattern)) {
+                        add(start);
+                    }
+                    line.reset();
+                    start = offset;
+                }
+            }
+            return size;
+        }
+
+        synchronized void add(long offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+            if (size % BUFFER == 0) {
+                publish(size);
+            }
+        }
+
+        @Override
+        protected void process(List<Integer> chunks) {
+            if (isCancelled()) {
+                return;
+            }
+            show();
+            status.setText(String.format("Indexing… %,d line(s)", size));
+        }
+
+        synchronized void show() {
+            model.setOffsets(offsets, size);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                get();
+                show();
+                status.setText(String.format("%,d / %,d line(s)", size, lines));
+            } catch (Exception ex) {
+                logger.error(ex);
+                status.setText(ex.toString());
+            }
+        }
+    }
+
+    static boolean contains(byte[] line, byte[] pattern) {
+        for (int i = 0; i <= line.length - pattern.length; i++) {
+            int j = 0;
+            while (j < pattern.length && line[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -37,11 +37,14 @@ public class Buffer implements User {
         return str;
     }
 
+    /** Wait for the user, Stop or kill interrupts the query thread which then quits */
     public synchronized int get() {
         while (available == false) {
             try {
                 wait();
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Event.QUIT;
             }
         }
         available = false;
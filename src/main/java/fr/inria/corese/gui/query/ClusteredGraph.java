@@ -0,0 +1,381 @@
+package fr.inria.corese.gui.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.ui.graphicGraph.GraphPosLengthUtils;
+
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.sparql.datatype.RDF;
+import fr.inria.corese.core.sparql.triple.parser.NSManager;
+import fr.inria.corese.gui.util.GuiOptions;
+import fr.inria.corese.gui.util.TripleWriter;
+
+/**
+ * Level of detail display of a Corese graph with GraphStream. When the graph has more nodes than
+ * the budget (corese.gui.graph.budget), nodes are grouped into clusters by rdf:type, or by
+ * namespace for untyped resources, and parallel edges between clusters are aggregated with a
+ * count. A click on a cluster expands its members within the budget. Node labels are displayed
+ * only when the view is zoomed in below corese.gui.graph.labelZoom.
+ */
+public class ClusteredGraph {
+
+    private static final Logger logger = LogManager.getLogger(ClusteredGraph.class.getName());
+
+    static final String TYPE = RDF.RDF + "type";
+    static final String CLUSTER = "cluster:";
+    static final String OTHER = "Other";
+    // label of a node when labels are displayed
+    static final String LOD_LABEL = "lod.label";
+    static final String COUNT = "lod.count";
+    // placement of expanded members around their cluster
+    static final double SPIRAL = 0.1;
+    static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+    static final String CLUSTER_STYLE =
+            "fill-color: #f5a623, #d4881a; stroke-color: #9c6311; shape: circle; size: %dpx;";
+
+    private final MyJPanelQuery panel;
+    private final fr.inria.corese.core.Graph g;
+    private final NSManager nsm;
+    private final int budget;
+    private final double labelZoom;
+    private MultiGraph graph;
+    private boolean clustered = false;
+    private boolean labels = true;
+    private int num = 0;
+
+    // node id -> node, in graph order
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    // node id -> edges where the node occurs
+    private final Map<String, List<Edge>> incident = new HashMap<>();
+    // node id -> prefixed rdf:type of the node
+    private final Map<String, String> types = new HashMap<>();
+    // node id -> cluster key
+    private final Map<String, String> clusterOf = new HashMap<>();
+    // cluster key -> members that are not displayed yet
+    private final Map<String, List<Node>> members = new LinkedHashMap<>();
+    private final Set<Edge> displayed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    ClusteredGraph(MyJPanelQuery panel, fr.inria.corese.core.Graph g, NSManager nsm) {
+        this(
+                panel,
+                g,
+                nsm,
+                GuiOptions.intValue("graph.budget", 2000),
+                GuiOptions.doubleValue("graph.labelZoom", 0.5));
+    }
+
+    ClusteredGraph(
+            MyJPanelQuery panel,
+            fr.inria.corese.core.Graph g,
+            NSManager nsm,
+            int budget,
+            double labelZoom) {
+        this.panel = panel;
+        this.g = g;
+        this.nsm = nsm;
+        this.budget = Math.max(1, budget);
+        this.labelZoom = labelZoom;
+    }
+
+    /** Return the full graph when it fits the budget, the clustered graph otherwise */
+    MultiGraph create() {
+        index();
+        if (nodes.size() <= budget) {
+            graph = panel.create(g, nsm);
+            return graph;
+        }
+        clustered = true;
+        labels = false;
+        graph = new MultiGraph(g.getName(), false, true);
+        graph.addAttribute("ui.quality");
+        graph.addAttribute("ui.antialias");
+        cluster();
+        logger.info(
+                String.format(
+                        "Graph of %s nodes displayed as %s clusters",
+                        nodes.size(),
+                        members.size()));
+        return graph;
+    }
+
+    /** One pass on the edges: nodes, incident edges and types */
+    void index() {
+        for (Edge ent : g.getEdges()) {
+            Edge edge = ent.getEdge();
+            if (panel.isStyle(edge)) {
+                continue;
+            }
+            String id1 = id(edge.getNode(0));
+            String id2 = id(edge.getNode(1));
+            nodes.putIfAbsent(id1, edge.getNode(0));
+            nodes.putIfAbsent(id2, edge.getNode(1));
+            incident.computeIfAbsent(id1, k -> new ArrayList<>()).add(edge);
+            if (!id1.equals(id2)) {
+                incident.computeIfAbsent(id2, k -> new ArrayList<>()).add(edge);
+            }
+            if (edge.getEdgeLabel().equals(TYPE)) {
+                types.putIfAbsent(id1, panel.getLabel(nsm, edge.getNode(1)));
+            }
+        }
+    }
+
+    /** Node id: literals with the same label and another datatype or language are distinct */
+    static String id(Node node) {
+        return TripleWriter.term(node);
+    }
+
+    /** Group nodes into at most budget clusters and aggregate edges between clusters */
+    void cluster() {
+        for (Node node : nodes.values()) {
+            members.computeIfAbsent(key(node), k -> new ArrayList<>()).add(node);
+        }
+        if (members.size() > budget) {
+            merge();
+        }
+        for (Map.Entry<String, List<Node>> entry : members.entrySet()) {
+            for (Node node : entry.getValue()) {
+                clusterOf.put(id(node), entry.getKey());
+            }
+            org.graphstream.graph.Node gn = graph.addNode(CLUSTER + entry.getKey());
+            gn.addAttribute("ui.class", "Cluster");
+            update(entry.getKey(), gn);
+        }
+        for (Map.Entry<String, List<Edge>> entry : incident.entrySet()) {
+            for (Edge edge : entry.getValue()) {
+                // edges are registered for both nodes, consider them once with the subject
+                if (!id(edge.getNode(0)).equals(entry.getKey())) {
+                    continue;
+                }
+                String c1 = clusterOf.get(id(edge.getNode(0)));
+                String c2 = clusterOf.get(id(edge.getNode(1)));
+                // edges inside a cluster are displayed when it is expanded
+                if (!c1.equals(c2)) {
+                    aggregate(CLUSTER + c1, edge, CLUSTER + c2);
+                }
+            }
+        }
+    }
+
+    /** Keep the largest clusters, the smallest ones are grouped into one */
+    void merge() {
+        List<Map.Entry<String, List<Node>>> list = new ArrayList<>(members.entrySet());
+        list.sort((e1, e2) -> Integer.compare(e2.getValue().size(), e1.getValue().size()));
+        List<Node> other = new ArrayList<>();
+        members.clear();
+        for (int i = 0; i < list.size(); i++) {
+            if (i < budget - 1) {
+                members.put(list.get(i).getKey(), list.get(i).getValue());
+            } else {
+                other.addAll(list.get(i).getValue());
+            }
+        }
+        members.computeIfAbsent(OTHER, k -> new ArrayList<>()).addAll(other);
+    }
+
+    /** Cluster key: rdf:type of the node, Literal, Blank or namespace */
+    String key(Node node) {
+        String type = types.get(id(node));
+        if (type != null) {
+            return type;
+        } else if (node.isBlank()) {
+            return "Blank";
+        } else if (node.getDatatypeValue().isLiteral()) {
+            return "Literal";
+        }
+        String label = node.getLabel();
+        String pname = nsm.toPrefix(label);
+        int index = pname.indexOf(':');
+        if (!pname.equals(label) && index > 0) {
+            return pname.substring(0, index + 1);
+        }
+        index = Math.max(label.lastIndexOf('#'), label.lastIndexOf('/'));
+        return index > 0 ? label.substring(0, index + 1) : label;
+    }
+
+    boolean isClustered() {
+        return clustered;
+    }
+
+    boolean isCluster(String id) {
+        return id.startsWith(CLUSTER) && members.containsKey(id.substring(CLUSTER.length()));
+    }
+
+    MultiGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Display the members of a cluster, as many as the budget allows. Return false if the id is
+     * not a cluster or the budget is exhausted.
+     */
+    boolean expand(String id) {
+        if (!clustered || !isCluster(id)) {
+            return false;
+        }
+        String key = id.substring(CLUSTER.length());
+        List<Node> list = members.get(key);
+        int room = budget - graph.getNodeCount() + 1;
+        if (room <= 0) {
+            logger.warn("Graph budget of " + budget + " nodes reached, cluster not expanded");
+            return false;
+        }
+        List<Node> expanded = new ArrayList<>(list.subList(0, Math.min(room, list.size())));
+        // aggregated edges of expanded members are displayed again from the members
+        Set<Edge> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Node node : expanded) {
+            for (Edge edge : incident.get(id(node))) {
+                if (!displayed.contains(edge) && moved.add(edge)) {
+                    String source = display(id(edge.getNode(0)));
+                    String target = display(id(edge.getNode(1)));
+                    if (!source.equals(target)) {
+                        disaggregate(source, edge, target);
+                    }
+                }
+            }
+        }
+        list.subList(0, expanded.size()).clear();
+        // there is no auto layout: members are placed on a spiral around the cluster
+        double[] center = GraphPosLengthUtils.nodePosition(graph.getNode(id));
+        int i = 0;
+        for (Node node : expanded) {
+            org.graphstream.graph.Node gn = graph.addNode(id(node));
+            gn.addAttribute(LOD_LABEL, panel.getLabel(nsm, node));
+            panel.style(node, gn);
+            showLabel(gn);
+            double radius = SPIRAL * Math.sqrt(++i);
+            double angle = i * GOLDEN_ANGLE;
+            gn.setAttribute(
+                    GraphLayout.XYZ,
+                    center[0] + radius * Math.cos(angle),
+                    center[1] + radius * Math.sin(angle),
+                    0.0);
+        }
+        // connect when every new node is displayed, edges between them are real edges
+        for (Node node : expanded) {
+            connect(node);
+        }
+        if (list.isEmpty()) {
+            members.remove(key);
+            graph.removeNode(id);
+        } else {
+            update(key, graph.getNode(id));
+        }
+        return true;
+    }
+
+    /** Connect a displayed node to displayed nodes and to clusters of hidden nodes */
+    void connect(Node node) {
+        for (Edge edge : incident.get(id(node))) {
+            if (displayed.contains(edge)) {
+                continue;
+            }
+            String s = id(edge.getNode(0));
+            String o = id(edge.getNode(1));
+            if (isDisplayed(s) && isDisplayed(o)) {
+                displayed.add(edge);
+                org.graphstream.graph.Edge ge = graph.addEdge("edge" + num++, s, o, true);
+                ge.addAttribute(LOD_LABEL, panel.getLabel(nsm, edge.getEdgeNode()));
+                ge.addAttribute("ui.class", "edge");
+                showLabel(ge);
+            } else if (isDisplayed(s)) {
+                aggregate(s, edge, CLUSTER + clusterOf.get(o));
+            } else {
+                aggregate(CLUSTER + clusterOf.get(s), edge, o);
+            }
+        }
+    }
+
+    boolean isDisplayed(String id) {
+        return graph.getNode(id) != null;
+    }
+
+    /** Displayed node of a node id: the node itself or its cluster */
+    String display(String id) {
+        return isDisplayed(id) ? id : CLUSTER + clusterOf.get(id);
+    }
+
+    /** One edge per (source, predicate, target) with the number of edges it stands for */
+    void aggregate(String source, Edge edge, String target) {
+        String predicate = panel.getLabel(nsm, edge.getEdgeNode());
+        String id = "agg:" + source + "\t" + predicate + "\t" + target;
+        org.graphstream.graph.Edge ge = graph.getEdge(id);
+        if (ge == null) {
+            ge = graph.addEdge(id, source, target, true);
+            ge.addAttribute("ui.class", "edge");
+            ge.addAttribute(COUNT, 0);
+        }
+        int count = (Integer) ge.getAttribute(COUNT) + 1;
+        ge.setAttribute(COUNT, count);
+        ge.setAttribute(LOD_LABEL, count == 1 ? predicate : predicate + " (" + count + ")");
+        showLabel(ge);
+    }
+
+    /** Remove an edge from the count of its aggregated edge, remove it when the count is 0 */
+    void disaggregate(String source, Edge edge, String target) {
+        String predicate = panel.getLabel(nsm, edge.getEdgeNode());
+        String id = "agg:" + source + "\t" + predicate + "\t" + target;
+        org.graphstream.graph.Edge ge = graph.getEdge(id);
+        if (ge == null) {
+            return;
+        }
+        int count = (Integer) ge.getAttribute(COUNT) - 1;
+        if (count <= 0) {
+            graph.removeEdge(ge);
+            return;
+        }
+        ge.setAttribute(COUNT, count);
+        ge.setAttribute(LOD_LABEL, count == 1 ? predicate : predicate + " (" + count + ")");
+        showLabel(ge);
+    }
+
+    /** Cluster label and size reflect the number of hidden members */
+    void update(String key, org.graphstream.graph.Node gn) {
+        int size = members.get(key).size();
+        gn.setAttribute("label", key + " (" + size + ")");
+        gn.setAttribute(
+                "ui.style",
+                String.format(CLUSTER_STYLE, 20 + (int) (8 * Math.log10(Math.max(1, size)))));
+    }
+
+    /** Called when the zoom changes: display labels when zoomed in enough */
+    void zoom(double viewPercent) {
+        if (!clustered) {
+            return;
+        }
+        boolean show = viewPercent <= labelZoom;
+        if (show == labels) {
+            return;
+        }
+        labels = show;
+        for (org.graphstream.graph.Node gn : graph.getEachNode()) {
+            showLabel(gn);
+        }
+        for (org.graphstream.graph.Edge ge : graph.getEachEdge()) {
+            showLabel(ge);
+        }
+    }
+
+    void showLabel(Element elem) {
+        if (!elem.hasAttribute(LOD_LABEL)) {
+            // cluster label is always displayed
+            return;
+        }
+        if (labels) {
+            elem.setAttribute("label", (String) elem.getAttribute(LOD_LABEL));
+        } else {
+            elem.removeAttribute("label");
+        }
+    }
+}
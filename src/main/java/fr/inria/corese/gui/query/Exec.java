@@ -1,5 +1,6 @@
 package fr.inria.corese.gui.query;
 
+import java.io.IOException;
 import java.util.Date;
 
 import org.apache.logging.log4j.Level;
@@ -10,7 +11,6 @@ import fr.inria.corese.core.Graph;
 import fr.inria.corese.core.compiler.federate.FederateVisitor;
 import fr.inria.corese.core.kgram.core.Mappings;
 import fr.inria.corese.core.kgram.core.Query;
-import fr.inria.corese.core.kgram.event.Event;
 import fr.inria.corese.core.query.QueryProcess;
 import fr.inria.corese.core.sparql.exceptions.EngineException;
 import fr.inria.corese.core.sparql.triple.parser.ASTQuery;
@@ -21,9 +21,22 @@ import fr.inria.corese.core.util.SPINProcess;
 import fr.inria.corese.core.util.Tool;
 import fr.inria.corese.gui.core.MainFrame;
 import fr.inria.corese.gui.event.MyEvalListener;
+import fr.inria.corese.gui.event.ProfileListener;
+import fr.inria.corese.gui.event.TraceRecorder;
+import fr.inria.corese.gui.util.GuiOptions;
 
-/** Exec KGRAM Query in a // thread to enable interacting with EvalListener through the GUI */
-public class Exec extends Thread {
+/**
+ * Exec KGRAM Query on a thread of the QueryScheduler to enable interacting with EvalListener
+ * through the GUI
+ */
+public class Exec implements Runnable {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        CANCELLED,
+        DONE
+    }
 
     private static Logger logger = LogManager.getLogger(Exec.class);
 
@@ -46,6 +59,24 @@ public class Exec extends Thread {
     QueryExec current;
     private GraphEngine graphEngine;
     private Mappings mappings;
+    private State state = State.QUEUED;
+    private boolean cancelled = false;
+    // a new query of the same tab replaces this one, its result is not displayed
+    private volatile boolean superseded = false;
+    // thread running the query, interrupted by kill
+    private volatile Thread runner;
+    private volatile Mappings result;
+    private long submitTime, startTime, endTime;
+    private QueryLimits limits = QueryLimits.create();
+    // heap used when the query starts, the limit applies to its growth
+    private long startHeap;
+    // reason why the result is partial, null when complete
+    private volatile String truncated;
+    private boolean profile = false;
+    // counters of the query when profile is on
+    private ProfileListener profiler;
+    // trace of the query when debug is on and the trace is written to file
+    private TraceRecorder recorder;
 
     public Exec(MainFrame f, String q, boolean b) {
         frame = f;
@@ -55,19 +86,43 @@ public class Exec extends Thread {
     }
 
     /**
-     * run the thread in // the buffer is used by listener to wait for user interaction with
-     * buttons: next, quit, etc.
+     * submit the query to the scheduler, the buffer is used by listener to wait for user
+     * interaction with buttons: next, quit, etc.
      */
     public void process() {
         buffer = new Buffer();
-        start();
+        submitTime = System.currentTimeMillis();
+        frame.getQueryScheduler().submit(this);
+    }
+
+    /** Called by the scheduler: run the query unless it was cancelled while queued */
+    void execute() {
+        synchronized (this) {
+            if (state == State.CANCELLED) {
+                return;
+            }
+            state = State.RUNNING;
+            startTime = System.currentTimeMillis();
+            startHeap = usedHeap();
+        }
+        runner = Thread.currentThread();
+        try {
+            run();
+        } finally {
+            runner = null;
+            // do not leak an interrupt to the next query of the pool thread
+            Thread.interrupted();
+            synchronized (this) {
+                endTime = System.currentTimeMillis();
+                state = cancelled ? State.CANCELLED : State.DONE;
+            }
+        }
     }
 
-    /** run the thread in // */
     @Override
     public void run() {
         Mappings res = null;
-        MyJPanelQuery panel = frame.getPanel();
+        MyJPanelQuery panel = getPanel();
         if (isValidate()) {
             res = compile();
             if (res != null) {
@@ -78,18 +133,144 @@ public class Exec extends Thread {
         } else {
             res = query();
         }
+        result = res;
+        if (recorder != null) {
+            closeTrace();
+        }
+        if (isSuperseded()) {
+            return;
+        }
         frame.setBuffer(null);
+        panel.setTruncated(truncated);
         panel.display(res, getCurrent().getQueryProcess().getCreateBinding());
+        if (profiler != null) {
+            panel.displayProfile(profiler);
+        }
     }
 
     public void finish(boolean kill) {
-        if (kill) {
-            interrupt();
-        } else if (current != null) {
+        synchronized (this) {
+            if (state == State.QUEUED) {
+                state = State.CANCELLED;
+                endTime = System.currentTimeMillis();
+                return;
+            } else if (state != State.RUNNING) {
+                return;
+            }
+            cancelled = true;
+        }
+        Thread thread = runner;
+        // a debug query may wait for the user on the buffer: interrupt releases it
+        if ((kill || debug) && thread != null) {
+            thread.interrupt();
+        }
+        if (!kill && current != null) {
             current.finish();
         }
     }
 
+    /**
+     * Called periodically by the scheduler: stop the query when it exceeds its time or heap
+     * limit, the results found so far are displayed as truncated.
+     */
+    void checkLimits() {
+        long elapsed, heap;
+        synchronized (this) {
+            if (state != State.RUNNING || truncated != null) {
+                return;
+            }
+            elapsed = System.currentTimeMillis() - startTime;
+            heap = usedHeap() - startHeap;
+        }
+        String reason = limits.check(elapsed, heap);
+        if (reason != null) {
+            stop(reason);
+        }
+    }
+
+    /** Stop the running query, the results found so far are displayed as truncated */
+    synchronized void stop(String reason) {
+        if (state == State.RUNNING && truncated == null && current != null) {
+            truncated = reason;
+            logger.warn("Query stopped: " + reason);
+            current.finish();
+        }
+    }
+
+    /** Heap used by live objects, measured after garbage collection */
+    static long usedHeap() {
+        return HeapMonitor.used();
+    }
+
+    /** Trace query, it waits for the user between steps */
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public QueryLimits getLimits() {
+        return limits;
+    }
+
+    public void setLimits(QueryLimits limits) {
+        this.limits = limits;
+    }
+
+    public String getTruncated() {
+        return truncated;
+    }
+
+    public boolean isProfile() {
+        return profile;
+    }
+
+    /** Count the events of the triple patterns, filters and services of the query */
+    public void setProfile(boolean b) {
+        profile = b;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isFinished() {
+        return state == State.CANCELLED || state == State.DONE;
+    }
+
+    /** Elapsed time in ms while queued, running or since the end */
+    public synchronized long getElapsed() {
+        if (startTime == 0) {
+            return (endTime == 0 ? System.currentTimeMillis() : endTime) - submitTime;
+        }
+        return (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime;
+    }
+
+    /** Number of results, -1 until the query is done */
+    public int getResultCount() {
+        Mappings map = result;
+        return map == null ? -1 : map.size();
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public boolean isSuperseded() {
+        return superseded;
+    }
+
+    void setSuperseded(boolean b) {
+        superseded = b;
+    }
+
+    /** Query tab that displays the result */
+    public MyJPanelQuery getPanel() {
+        return panel == null ? frame.getPanel() : panel;
+    }
+
+    public void setPanel(MyJPanelQuery panel) {
+        this.panel = panel;
+    }
+
     void setCurrent(QueryExec exec) {
         current = exec;
     }
@@ -111,14 +292,26 @@ public class Exec extends Thread {
         if (debug) {
             debug(exec);
         }
+        if (isProfile()) {
+            profiler = ProfileListener.create();
+            exec.addEventListener(profiler);
+        }
         Date d1 = new Date();
         try {
             String q = query;
             if (isShacl()) {
                 q = qshacl;
             }
-            // draft test: Mappings available using xt:mappings()
-            Mappings map = exec.SPARQLQuery(q, getMappings());
+            Mappings map;
+            if (limits.getMaxRows() > 0 && getMappings() == null && !isShacl()) {
+                map = exec.SPARQLQuery(q, limits.getMaxRows());
+                if (exec.isLimited() && map.size() >= limits.getMaxRows() && truncated == null) {
+                    truncated = QueryLimits.MAX_ROWS + limits.getMaxRows();
+                }
+            } else {
+                // draft test: Mappings available using xt:mappings()
+                map = exec.SPARQLQuery(q, getMappings());
+            }
             Date d2 = new Date();
             trace(map);
             logger.info(
@@ -126,7 +319,13 @@ public class Exec extends Thread {
             return map;
         } catch (EngineException e) {
             e.printStackTrace();
-            frame.getPanel().getTextArea().setText(e.toString());
+            getPanel().getTextArea().setText(e.toString());
+        } catch (OutOfMemoryError e) {
+            // last resort: the heap limits stop the query with its partial results before, but a
+            // single step may fill the heap between two checks, its results are unreachable
+            truncated = "out of memory";
+            logger.error("Query stopped: out of memory");
+            getPanel().getTextArea().setText("Query stopped: out of memory, " + limits);
         }
         return null;
     }
@@ -170,7 +369,7 @@ public class Exec extends Thread {
             return map.getResult();
         } catch (EngineException e) {
             e.printStackTrace();
-            frame.getPanel().getTextArea().setText(e.toString());
+            getPanel().getTextArea().setText(e.toString());
         }
         return null;
     }
@@ -195,7 +394,17 @@ public class Exec extends Thread {
     /** Create EvalListener */
     void debug(QueryExec exec) {
         MyEvalListener el = MyEvalListener.create();
-        el.handle(Event.ALL, true);
+        if (!el.handle(GuiOptions.stringValue("trace.events", ""))) {
+            logger.warn("Unknown trace event, known events: " + MyEvalListener.EVENTS.keySet());
+        }
+        if (frame.isTraceFile()) {
+            try {
+                recorder = TraceRecorder.create();
+                el.setRecorder(recorder, GuiOptions.intValue("trace.sample", 1));
+            } catch (IOException ex) {
+                logger.error(ex);
+            }
+        }
 
         el.setFrame(frame);
         el.setUser(buffer);
@@ -206,6 +415,20 @@ public class Exec extends Thread {
         exec.addEventListener(el);
     }
 
+    /** Write the end of the trace, the Trace Viewer of the Debug menu displays it */
+    void closeTrace() {
+        try {
+            recorder.close();
+            frame.setTraceFile(recorder.getPath());
+            logger.info(
+                    String.format(
+                            "Trace: %s event(s) written to %s, %s dropped",
+                            recorder.getWritten(), recorder.getPath(), recorder.getDropped()));
+        } catch (IOException ex) {
+            logger.error(ex);
+        }
+    }
+
     /**
      * @return the validate
      */
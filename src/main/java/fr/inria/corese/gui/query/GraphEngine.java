@@ -11,8 +11,28 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -55,7 +75,12 @@ public class GraphEngine {
     private QuerySolverVisitor visitor;
     Build build;
 
+    // extensions of files that can be parsed in a staging graph
+    static final Set<String> RDF_EXTENSIONS =
+            Set.of("ttl", "rdf", "rdfs", "owl", "nt", "nq", "trig", "n3", "jsonld", "xml", "html");
+
     private boolean isListGroup = false, isDebug = false, linkedFunction = false;
+    private boolean parallelLoad = false;
 
     GraphEngine(boolean b) {
         graph = GraphStore.create(b);
@@ -111,6 +136,10 @@ public class GraphEngine {
                     param(cmd.get(key));
                     break;
 
+                case Command.PARALLEL_LOAD:
+                    setParallelLoad(true);
+                    break;
+
                 case Command.LOAD:
                     logger.info("load: " + cmd.get(key));
                     loadDirProtect(cmd.get(key));
@@ -228,17 +257,193 @@ public class GraphEngine {
 
     public void loadDirProtect(String path) {
         try {
-            Load ld = loader();
-            if (path.contains(";")) {
-                for (String name : path.split(";")) {
-                    ld.parseDir(name);
+            loadDirs(path);
+        } catch (IOException ex) {
+            logger.error(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.error(ex);
+        }
+    }
+
+    /** Load files and directories of path, separated by ;, return those that failed to load */
+    public List<String> loadDirs(String path) throws IOException, InterruptedException {
+        List<String> failures = new ArrayList<>();
+        if (isParallelLoad()) {
+            try {
+                loadParallel(
+                        listFiles(path.split(";")),
+                        (name, ex) -> {
+                            if (ex != null) {
+                                failures.add(name);
+                            }
+                        });
+            } catch (LoadException | EngineException ex) {
+                logger.error(ex);
+                failures.add(path);
+            }
+            return failures;
+        }
+        Load ld = loader();
+        for (String name : path.split(";")) {
+            try {
+                ld.parseDir(name);
+            } catch (LoadException ex) {
+                logger.error(ex);
+                failures.add(name);
+            }
+        }
+        return failures;
+    }
+
+    /** RDF files of directories, other paths are kept as is */
+    List<String> listFiles(String... paths) throws IOException {
+        List<String> list = new ArrayList<>();
+        for (String name : paths) {
+            Path path = Paths.get(name);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> stream = Files.walk(path)) {
+                    list.addAll(
+                            stream.filter(Files::isRegularFile)
+                                    .map(Path::toString)
+                                    .filter(GraphEngine::isStaging)
+                                    .sorted()
+                                    .collect(Collectors.toList()));
                 }
             } else {
-                ld.parseDir(path);
+                list.add(name);
             }
-        } catch (LoadException ex) {
-            logger.error(ex);
         }
+        return list;
+    }
+
+    /**
+     * Parse each RDF file into its own staging graph on a pool sized to the cores. Staging graphs
+     * are merged into the main graph in the order of the list, rules, queries and other files
+     * that need the engine are loaded in the main graph at their place in the list. The callback,
+     * if any, is called with the path and the exception (null on success) of each file.
+     */
+    public void loadParallel(List<String> paths, BiConsumer<String, Exception> callback)
+            throws EngineException, LoadException, InterruptedException {
+        loadParallel(paths, callback, () -> false);
+    }
+
+    /** Parallel load that ends, without merging remaining files, when stop returns true */
+    public void loadParallel(
+            List<String> paths, BiConsumer<String, Exception> callback, BooleanSupplier stop)
+            throws EngineException, LoadException, InterruptedException {
+        List<String> staging = paths.stream().filter(GraphEngine::isStaging).toList();
+        int nbThreads =
+                Math.max(
+                        1, Math.min(staging.size(), Runtime.getRuntime().availableProcessors()));
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool =
+                Executors.newFixedThreadPool(
+                        nbThreads,
+                        r -> {
+                            Thread t = new Thread(r, "corese-parse-" + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+        Map<String, Future<Graph>> futures = new HashMap<>();
+        try {
+            for (String path : staging) {
+                futures.computeIfAbsent(path, p -> pool.submit(() -> parse(p)));
+            }
+            for (String path : paths) {
+                if (stop.getAsBoolean()) {
+                    break;
+                }
+                Exception error = null;
+                Future<Graph> future = futures.get(path);
+                if (future == null) {
+                    Lock lock = writeLock();
+                    lock.lock();
+                    try {
+                        load(path);
+                    } catch (LoadException | EngineException ex) {
+                        // reported and skipped, as a staging file that fails to parse
+                        error = ex;
+                        logger.error("Load " + path + ": " + error);
+                    } finally {
+                        lock.unlock();
+                    }
+                } else {
+                    try {
+                        merge(future.get());
+                    } catch (ExecutionException ex) {
+                        error =
+                                ex.getCause() instanceof Exception
+                                        ? (Exception) ex.getCause()
+                                        : ex;
+                        logger.error("Load " + path + ": " + error);
+                    }
+                }
+                if (callback != null) {
+                    callback.accept(path, error);
+                }
+            }
+        } finally {
+            // on stop or interrupt, parsing of remaining files is cancelled
+            for (Future<Graph> future : futures.values()) {
+                future.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+    }
+
+    /** Parse a file in a new graph, named graph is the same as with load(path) */
+    public Graph parse(String path) throws LoadException {
+        Graph g = Graph.create();
+        Load ld = Load.create(g);
+        ld.parse(path, ld.defaultGraph());
+        return g;
+    }
+
+    /** Write lock of the graph: loads take it, queries wait for it with the read lock */
+    public Lock writeLock() {
+        return graph.getLock().writeLock();
+    }
+
+    /** Read lock of the graph: exports and snapshots take it to see a graph that does not change */
+    public Lock readLock() {
+        return graph.getLock().readLock();
+    }
+
+    /** Merge a staging graph into the main graph with its write lock */
+    public void merge(Graph g) {
+        Lock lock = writeLock();
+        lock.lock();
+        try {
+            graph.copy(g);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** RDF file that can be parsed on its own, not a rule, query or workflow */
+    public static boolean isStaging(String path) {
+        int index = path.lastIndexOf('.');
+        return index > 0
+                && RDF_EXTENSIONS.contains(path.substring(index + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** Drop named graphs, missing graphs are ignored */
+    public void drop(Collection<String> graphs) throws EngineException {
+        StringBuilder sb = new StringBuilder();
+        for (String name : graphs) {
+            sb.append(sb.length() == 0 ? "" : " ;\n");
+            sb.append("drop silent graph <").append(name).append(">");
+        }
+        createQueryProcess().query(sb.toString());
+    }
+
+    public boolean isParallelLoad() {
+        return parallelLoad;
+    }
+
+    public void setParallelLoad(boolean b) {
+        parallelLoad = b;
     }
 
     public void loadDir(String path) throws EngineException, LoadException {
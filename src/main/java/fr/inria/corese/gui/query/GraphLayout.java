@@ -0,0 +1,158 @@
+package fr.inria.corese.gui.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.stream.GraphReplay;
+import org.graphstream.ui.layout.springbox.implementations.SpringBox;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Compute the layout of a GraphStream graph outside the Event Dispatch Thread. Trees are laid
+ * out by level, other graphs with a SpringBox force layout (Barnes-Hut approximation) until it
+ * stabilizes or the maximum number of steps (corese.gui.graph.layoutSteps) is reached.
+ * Coordinates are set as xyz attributes, the graph is then displayed without auto layout.
+ */
+public class GraphLayout extends SwingWorker<Void, Void> {
+
+    private static final Logger logger = LogManager.getLogger(GraphLayout.class.getName());
+    static final String XYZ = "xyz";
+    // distance between two levels and two leaves of a tree
+    static final double LEVEL = 1.0;
+    static final double SIBLING = 1.0;
+    // deeper trees are laid out by force, place() is recursive
+    static final int MAX_DEPTH = 1000;
+
+    private final MultiGraph graph;
+    private final Consumer<MultiGraph> display;
+    private final int maxSteps;
+
+    GraphLayout(MultiGraph graph, Consumer<MultiGraph> display) {
+        this.graph = graph;
+        this.display = display;
+        this.maxSteps = GuiOptions.intValue("graph.layoutSteps", 1000);
+    }
+
+    @Override
+    protected Void doInBackground() {
+        long time = System.currentTimeMillis();
+        if (!tree()) {
+            spring();
+        }
+        logger.info(
+                String.format(
+                        "Layout of %s nodes in %.3f s",
+                        graph.getNodeCount(), (System.currentTimeMillis() - time) / 1000.0));
+        return null;
+    }
+
+    @Override
+    protected void done() {
+        if (!isCancelled()) {
+            display.accept(graph);
+        }
+    }
+
+    /** Force layout until stabilization, SpringBox sends xyz attributes to the graph */
+    void spring() {
+        SpringBox layout = new SpringBox(false);
+        layout.setQuality(0.95);
+        layout.setForce(0.85);
+        layout.setStabilizationLimit(0.8);
+        GraphReplay replay = new GraphReplay(graph.getId());
+        replay.addSink(layout);
+        replay.replay(graph);
+        replay.removeSink(layout);
+        layout.addAttributeSink(graph);
+        try {
+            for (int i = 0; i < maxSteps && !isCancelled(); i++) {
+                layout.compute();
+                if (layout.getStabilization() >= layout.getStabilizationLimit()) {
+                    break;
+                }
+            }
+        } finally {
+            layout.removeAttributeSink(graph);
+        }
+    }
+
+    /**
+     * Hierarchical layout when the graph is a forest: each node has at most one incoming edge
+     * and every node is reachable from a root. Return false if the graph is not a forest.
+     */
+    boolean tree() {
+        List<Node> roots = new ArrayList<>();
+        for (Node node : graph.getEachNode()) {
+            int in = node.getInDegree();
+            if (in > 1) {
+                return false;
+            } else if (in == 0) {
+                roots.add(node);
+            }
+        }
+        if (roots.isEmpty()) {
+            return false;
+        }
+        Map<Node, Integer> depth = new HashMap<>();
+        Deque<Node> queue = new ArrayDeque<>(roots);
+        for (Node root : roots) {
+            depth.put(root, 0);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Edge edge : node.getEachLeavingEdge()) {
+                Node child = edge.getOpposite(node);
+                if (depth.containsKey(child)) {
+                    // cycle or self loop
+                    return false;
+                }
+                int d = depth.get(node) + 1;
+                if (d > MAX_DEPTH) {
+                    return false;
+                }
+                depth.put(child, d);
+                queue.add(child);
+            }
+        }
+        if (depth.size() != graph.getNodeCount()) {
+            return false;
+        }
+        double[] leaf = {0};
+        for (Node root : roots) {
+            place(root, depth, leaf);
+        }
+        return true;
+    }
+
+    /** Leaves are placed from left to right, a parent is centered above its children */
+    double place(Node node, Map<Node, Integer> depth, double[] leaf) {
+        double x;
+        if (node.getOutDegree() == 0) {
+            x = leaf[0];
+            leaf[0] += SIBLING;
+        } else {
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (Edge edge : node.getEachLeavingEdge()) {
+                double cx = place(edge.getOpposite(node), depth, leaf);
+                min = Math.min(min, cx);
+                max = Math.max(max, cx);
+            }
+            x = (min + max) / 2;
+        }
+        node.setAttribute(XYZ, x, -depth.get(node) * LEVEL, 0.0);
+        return x;
+    }
+}
@@ -0,0 +1,94 @@
+package fr.inria.corese.gui.query;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Heap used by live objects, measured right after garbage collection with the collection usage of
+ * the heap memory pools, rather than totalMemory - freeMemory which also counts garbage. A
+ * collection usage threshold is set at corese.gui.query.heapThreshold percent (default 80) of the
+ * max size of the pools: when a collection leaves more than that, the low memory action is run so
+ * that queries stop with their partial results before an OutOfMemoryError.
+ */
+class HeapMonitor implements NotificationListener {
+
+    private static final Logger logger = LogManager.getLogger(HeapMonitor.class.getName());
+    static final int THRESHOLD = GuiOptions.intValue("query.heapThreshold", 80);
+
+    private final Runnable lowMemory;
+    private final NotificationEmitter emitter;
+
+    HeapMonitor(Runnable lowMemory) {
+        this.lowMemory = lowMemory;
+        this.emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+        if (THRESHOLD > 0 && THRESHOLD < 100) {
+            for (MemoryPoolMXBean pool : pools()) {
+                long max = pool.getUsage().getMax();
+                if (max > 0) {
+                    pool.setCollectionUsageThreshold(max / 100 * THRESHOLD);
+                }
+            }
+            emitter.addNotificationListener(this, null, null);
+        }
+    }
+
+    /** Heap pools whose usage after collection is known, e.g. the old generation */
+    static List<MemoryPoolMXBean> pools() {
+        List<MemoryPoolMXBean> list = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP
+                    && pool.isValid()
+                    && pool.isCollectionUsageThresholdSupported()) {
+                list.add(pool);
+            }
+        }
+        return list;
+    }
+
+    /** Heap used after the last garbage collection */
+    static long used() {
+        long used = 0;
+        boolean found = false;
+        for (MemoryPoolMXBean pool : pools()) {
+            if (pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+                found = true;
+            }
+        }
+        if (!found) {
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+        return used;
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(
+                notification.getType())) {
+            logger.warn("Heap above " + THRESHOLD + "% after garbage collection");
+            lowMemory.run();
+        }
+    }
+
+    void close() {
+        try {
+            emitter.removeNotificationListener(this);
+        } catch (ListenerNotFoundException ex) {
+            // threshold was disabled
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package fr.inria.corese.gui.query;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.sparql.api.IDatatype;
+
+/**
+ * Sort the rows of a MappingsTableModel by computing a permutation of mapping indexes. Values are
+ * compared according to their kind (numeric, date, language tagged, lexical), numbers and dates
+ * with the Corese value order, and the cells are never copied. Large results are sorted with
+ * Arrays.parallelSort.
+ */
+public class MappingsSorter {
+
+    static final int PARALLEL_THRESHOLD = 10000;
+    static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+    static final Set<String> DATES =
+            Set.of(
+                    XSD + "date",
+                    XSD + "dateTime",
+                    XSD + "dateTimeStamp",
+                    XSD + "time",
+                    XSD + "gYear",
+                    XSD + "gYearMonth");
+
+    // rank of values of different kinds, unbound first as in SPARQL order by
+    static final int UNBOUND = 0;
+    static final int BLANK = 1;
+    static final int URI = 2;
+    static final int NUMBER = 3;
+    static final int DATE = 4;
+    static final int LANG = 5;
+    static final int LITERAL = 6;
+
+    static final Comparator<IDatatype> DATATYPE_COMPARATOR = MappingsSorter::compare;
+
+    private MappingsSorter() {}
+
+    /** Sort the rows of the model on column col, column 0 is the row number */
+    static int[] sort(MappingsTableModel model, int col, boolean ascending) {
+        int[] index = model.getIndex();
+        if (col > 0) {
+            return sort(model.getMappings(), model.getColumnName(col), index, ascending);
+        }
+        Arrays.sort(index);
+        if (!ascending) {
+            reverse(index);
+        }
+        return index;
+    }
+
+    /**
+     * Return the permutation of mapping indexes in index sorted on the value of var, equal values
+     * keep the mapping order in both directions
+     */
+    static int[] sort(Mappings map, String var, int[] index, boolean ascending) {
+        // one lookup per row, the comparator then works on the datatypes
+        IDatatype[] values = new IDatatype[map.size()];
+        Integer[] perm = new Integer[index.length];
+        for (int i = 0; i < index.length; i++) {
+            Node node = map.get(index[i]).getNode(var);
+            values[index[i]] = node == null ? null : node.getValue();
+            perm[i] = index[i];
+        }
+        // stable sort with a reversed comparator rather than a reversed result
+        Comparator<IDatatype> order =
+                ascending ? DATATYPE_COMPARATOR : DATATYPE_COMPARATOR.reversed();
+        Comparator<Integer> cmp = Comparator.comparing((Integer i) -> values[i], order);
+        if (perm.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(perm, cmp);
+        } else {
+            Arrays.sort(perm, cmp);
+        }
+        int[] res = new int[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            res[i] = perm[i];
+        }
+        return res;
+    }
+
+    static void reverse(int[] index) {
+        for (int i = 0, j = index.length - 1; i < j; i++, j--) {
+            int temp = index[i];
+            index[i] = index[j];
+            index[j] = temp;
+        }
+    }
+
+    static int compare(IDatatype dt1, IDatatype dt2) {
+        int k1 = kind(dt1), k2 = kind(dt2);
+        if (k1 != k2) {
+            return Integer.compare(k1, k2);
+        }
+        switch (k1) {
+            case UNBOUND:
+                return 0;
+            case NUMBER:
+            case DATE:
+                // exact decimal and integer values, dates with their time zone
+                return dt1.compareTo(dt2);
+            case LANG:
+                int res = dt1.stringValue().compareTo(dt2.stringValue());
+                return res != 0 ? res : dt1.getLang().compareTo(dt2.getLang());
+            case LITERAL:
+                res = dt1.getLabel().compareTo(dt2.getLabel());
+                return res != 0
+                        ? res
+                        : String.valueOf(dt1.getDatatypeURI())
+                                .compareTo(String.valueOf(dt2.getDatatypeURI()));
+            default:
+                return dt1.getLabel().compareTo(dt2.getLabel());
+        }
+    }
+
+    static int kind(IDatatype dt) {
+        if (dt == null) {
+            return UNBOUND;
+        } else if (dt.isBlank()) {
+            return BLANK;
+        } else if (dt.isURI()) {
+            return URI;
+        } else if (dt.isNumber()) {
+            return NUMBER;
+        } else if (dt.hasLang()) {
+            return LANG;
+        } else if (dt.isLiteral() && DATES.contains(dt.getDatatypeURI())) {
+            return DATE;
+        }
+        return LITERAL;
+    }
+}
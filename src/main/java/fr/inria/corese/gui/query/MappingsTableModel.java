@@ -0,0 +1,132 @@
+package fr.inria.corese.gui.query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.table.AbstractTableModel;
+
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.kgram.core.Mapping;
+import fr.inria.corese.core.kgram.core.Mappings;
+
+/**
+ * Table model backed directly by query Mappings. Cells are formatted on demand when the table
+ * paints them and the formatted rows are kept in a small LRU cache, so memory is proportional to
+ * the visible rows instead of rows x columns Strings.
+ */
+public class MappingsTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+    static final String NUM = "num";
+    // enough for a few screens of rows
+    static final int CACHE_SIZE = 512;
+
+    private final MyJPanelQuery panel;
+    private final Mappings map;
+    private final List<String> columns;
+    private final int size;
+    // view row -> mapping index, null means natural order
+    private int[] index;
+    private final Map<Integer, String[]> cache;
+
+    MappingsTableModel(MyJPanelQuery panel, Mappings map, List<String> columns, int size) {
+        this.panel = panel;
+        this.map = map;
+        this.columns = new ArrayList<>(columns);
+        this.size = size;
+        this.cache =
+                new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+                        return size() > CACHE_SIZE;
+                    }
+                };
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size() + 1;
+    }
+
+    @Override
+    public String getColumnName(int col) {
+        return col == 0 ? NUM : columns.get(col - 1);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        if (col == 0) {
+            return Integer.toString(getIndex(row) + 1);
+        }
+        return getRow(row)[col - 1];
+    }
+
+    String[] getRow(int row) {
+        String[] values = cache.get(row);
+        if (values == null) {
+            values = format(getMapping(row));
+            cache.put(row, values);
+        }
+        return values;
+    }
+
+    String[] format(Mapping m) {
+        String[] values = new String[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            Node value = m.getNode(columns.get(i));
+            if (value != null) {
+                values[i] = panel.pretty(value.getValue());
+            }
+        }
+        return values;
+    }
+
+    /** Mapping displayed at view row */
+    Mapping getMapping(int row) {
+        return map.get(getIndex(row));
+    }
+
+    int getIndex(int row) {
+        return index == null ? row : index[row];
+    }
+
+    Mappings getMappings() {
+        return map;
+    }
+
+    List<String> getColumns() {
+        return columns;
+    }
+
+    /** Display rows in the order given by the permutation of mapping indexes */
+    void setIndex(int[] index) {
+        this.index = index;
+        cache.clear();
+        fireTableDataChanged();
+    }
+
+    int[] getIndex() {
+        if (index == null) {
+            int[] res = new int[size];
+            for (int i = 0; i < size; i++) {
+                res[i] = i;
+            }
+            return res;
+        }
+        return index.clone();
+    }
+}
@@ -9,11 +9,13 @@ import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.GridLayout;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
@@ -22,19 +24,23 @@ import java.awt.event.MouseWheelListener;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.GroupLayout;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
+import javax.swing.JTextField;
 import javax.swing.JTextPane;
 import javax.swing.LayoutStyle;
 import javax.swing.SwingUtilities;
@@ -51,8 +57,8 @@ import org.apache.logging.log4j.Logger;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.ui.graphicGraph.GraphicElement;
 import org.graphstream.ui.graphicGraph.stylesheet.StyleSheet;
-import org.graphstream.ui.layout.springbox.implementations.SpringBox;
 import org.graphstream.ui.swingViewer.View;
 import org.graphstream.ui.swingViewer.Viewer;
 
@@ -81,6 +87,7 @@ import fr.inria.corese.core.util.CompareMappings;
 import fr.inria.corese.core.util.Property;
 import fr.inria.corese.core.util.SPINProcess;
 import fr.inria.corese.gui.core.MainFrame;
+import fr.inria.corese.gui.event.ProfileListener;
 
 /**
  * Query tab with everything it contains.
@@ -103,6 +110,12 @@ public final class MyJPanelQuery extends JPanel {
     int maxres = 1000000;
     // display max xml result format
     int maxresxml = 1000;
+    // serialize next pages of the XML/RDF tab on demand
+    private ResultPager pager;
+    private boolean appending = false;
+    // current sort of the result table
+    private int sortColumn = -1;
+    private boolean sortAscending = true;
 
     // Button of the Query panel
     private JButton buttonRun,
@@ -116,6 +129,7 @@ public final class MyJPanelQuery extends JPanel {
             buttonCompare,
             buttonKill,
             buttonStop,
+            buttonLimits,
             buttonValidate,
             buttonToSPIN,
             buttonToSPARQL,
@@ -128,6 +142,8 @@ public final class MyJPanelQuery extends JPanel {
     // Add scroll for the different panels
     private JScrollPane scrollPaneTreeResult;
     private JScrollPane scrollPaneXMLResult;
+    // results displayed in the XML/RDF tab when they are paged
+    private JLabel labelXMLPage;
     private JScrollPane scrollPaneValidation;
     private JScrollPane scrollPaneTable;
     private JTable tableResults;
@@ -138,6 +154,8 @@ public final class MyJPanelQuery extends JPanel {
     private JTextPane textPaneStyleGraph;
     // For the graph
     private MultiGraph graph;
+    private ClusteredGraph lod;
+    private GraphLayout layout;
     private boolean excepCatch = false;
     private JTextArea textAreaLinesGraph;
     private String stylesheet = "";
@@ -151,6 +169,15 @@ public final class MyJPanelQuery extends JPanel {
     // use case: query log graph
     private GraphEngine graphEngine;
     private Exec current;
+    // limits of the queries of this tab
+    private QueryLimits limits = QueryLimits.create();
+    // reason why the last result is partial
+    private JLabel labelTruncated;
+    private String truncated;
+    // profile the queries of this tab
+    private JCheckBox checkProfile;
+    private JScrollPane scrollPaneProfile;
+    private JTable tableProfile;
     private static final String KGSTYLE = ExpType.KGRAM + "style";
     private static final String KGGRAPH = Pragma.GRAPH;
     private static final Logger logger =
@@ -216,6 +243,10 @@ public final class MyJPanelQuery extends JPanel {
         buttonSort = new JButton();
         buttonCompare = new JButton();
         buttonStop = new JButton();
+        buttonLimits = new JButton();
+        checkProfile = new JCheckBox("Profile");
+        labelTruncated = new JLabel();
+        labelTruncated.setForeground(Color.red);
         buttonKill = new JButton();
         buttonValidate = new JButton();
         buttonToSPIN = new JButton();
@@ -231,6 +262,18 @@ public final class MyJPanelQuery extends JPanel {
         scrollPaneTable = new JScrollPane();
         tableResults = new JTable(new DefaultTableModel());
         tableResults.setFont(new Font("Sanserif", Font.PLAIN, 18));
+        tableResults
+                .getTableHeader()
+                .addMouseListener(
+                        new MouseAdapter() {
+                            @Override
+                            public void mouseClicked(MouseEvent e) {
+                                int col = tableResults.columnAtPoint(e.getPoint());
+                                if (col >= 0) {
+                                    sortColumn(tableResults.convertColumnIndexToModel(col));
+                                }
+                            }
+                        });
         textAreaXMLResult = new JTextArea();
         textAreaXMLResult.setFont(new Font("Sanserif", Font.BOLD, FontSize));
 
@@ -358,6 +401,8 @@ public final class MyJPanelQuery extends JPanel {
         buttonRun.setText("Query");
         buttonShacl.setText("Shacl");
         buttonStop.setText("Stop");
+        buttonLimits.setText("Limits…");
+        buttonLimits.addActionListener(e -> editLimits());
         buttonKill.setText("Kill");
         buttonValidate.setText("Validate");
         buttonToSPIN.setText("to SPIN");
@@ -400,7 +445,22 @@ public final class MyJPanelQuery extends JPanel {
         // textAreaXMLResult.setText(resultXML.toString());
         textAreaXMLResult.setText("");
         scrollPaneXMLResult.setViewportView(textAreaXMLResult);
-        tabbedPaneResults.addTab("XML/RDF", scrollPaneXMLResult);
+        scrollPaneXMLResult
+                .getVerticalScrollBar()
+                .addAdjustmentListener(
+                        e -> {
+                            JScrollBar bar = scrollPaneXMLResult.getVerticalScrollBar();
+                            if (bar.getValue() + bar.getVisibleAmount()
+                                    >= bar.getMaximum() - bar.getVisibleAmount()) {
+                                nextResultPage();
+                            }
+                        });
+        labelXMLPage = new JLabel();
+        labelXMLPage.setVisible(false);
+        JPanel panelXMLResult = new JPanel(new BorderLayout());
+        panelXMLResult.add(scrollPaneXMLResult, BorderLayout.CENTER);
+        panelXMLResult.add(labelXMLPage, BorderLayout.SOUTH);
+        tabbedPaneResults.addTab("XML/RDF", panelXMLResult);
 
         // results in table
         tableResults.setPreferredScrollableViewportSize(tableResults.getPreferredSize());
@@ -415,6 +475,15 @@ public final class MyJPanelQuery extends JPanel {
 
         tabbedPaneResults.addTab("Validate", scrollPaneValidation);
 
+        // Profile tab is added by the first profiled query
+        tableProfile = new JTable(new DefaultTableModel());
+        tableProfile.setAutoCreateRowSorter(true);
+        tableProfile.setFillsViewportHeight(true);
+        scrollPaneProfile = new JScrollPane(tableProfile);
+        checkProfile.setToolTipText(
+                "Count invocations, candidate edges, results and time of triple patterns,"
+                        + " filters and services");
+
         // Mise en forme
         final JSplitPane jp =
                 new JSplitPane(JSplitPane.VERTICAL_SPLIT, sparqlQueryEditor, tabbedPaneResults);
@@ -430,6 +499,7 @@ public final class MyJPanelQuery extends JPanel {
                 pane_listenerLayout.createParallelGroup(GroupLayout.Alignment.LEADING);
         GroupLayout.SequentialGroup hSeq2 = pane_listenerLayout.createSequentialGroup();
 
+        hSeq2.addComponent(labelTruncated);
         hSeq2.addPreferredGap(LayoutStyle.ComponentPlacement.RELATED, 257, Short.MAX_VALUE);
         hSeq2.addComponent(buttonRun);
         hSeq2.addComponent(buttonSort);
@@ -441,6 +511,8 @@ public final class MyJPanelQuery extends JPanel {
         hSeq2.addComponent(buttonBrowse);
         hSeq2.addComponent(buttonCompare);
         hSeq2.addComponent(buttonStop);
+        hSeq2.addComponent(buttonLimits);
+        hSeq2.addComponent(checkProfile);
         // hSeq2.addComponent(buttonKill);
         hSeq2.addComponent(buttonValidate);
         hSeq2.addComponent(buttonToSPIN);
@@ -475,6 +547,7 @@ public final class MyJPanelQuery extends JPanel {
                 pane_listenerLayout.createParallelGroup(GroupLayout.Alignment.LEADING);
         GroupLayout.SequentialGroup vSeq1 = pane_listenerLayout.createSequentialGroup();
 
+        vParallel2.addComponent(labelTruncated);
         vParallel2.addComponent(buttonRun);
         vParallel2.addComponent(buttonSort);
         vParallel2.addComponent(buttonShacl);
@@ -485,6 +558,8 @@ public final class MyJPanelQuery extends JPanel {
         vParallel2.addComponent(buttonBrowse);
         vParallel2.addComponent(buttonCompare);
         vParallel2.addComponent(buttonStop);
+        vParallel2.addComponent(buttonLimits);
+        vParallel2.addComponent(checkProfile);
         // vParallel2.addComponent(buttonKill);
         vParallel2.addComponent(buttonValidate);
         vParallel2.addComponent(buttonToSPIN);
@@ -558,7 +633,7 @@ public final class MyJPanelQuery extends JPanel {
         sparqlQueryEditor.setQueryText(newRequest);
     }
 
-    private String getLabel(NSManager nsm, fr.inria.corese.core.kgram.api.core.Node n) {
+    String getLabel(NSManager nsm, fr.inria.corese.core.kgram.api.core.Node n) {
         IDatatype dt = n.getValue();
         if (dt.isURI()) {
             return nsm.toPrefix(n.getLabel());
@@ -583,17 +658,23 @@ public final class MyJPanelQuery extends JPanel {
                 return graphToString(map);
             } else {
                 // RDF or XML
-                String str = mapToString(map);
-                if (str == null) {
-                    // use case: template fail
-                    str = "";
-                }
-                if (map.size() > maxResXML()) {
+                String str;
+                if (map.getQuery().isTemplate() || map.size() <= maxResXML()) {
+                    str = mapToString(map);
+                } else {
+                    // next pages are serialized when the user scrolls down
+                    pager = new ResultPager(this, map, maxResXML());
+                    str = pager.next();
+                    displayPage();
                     logger.info(
                             String.format(
-                                    "GUI display %s XML results out of %s",
+                                    "GUI display XML results by pages of %s out of %s",
                                     maxResXML(), map.size()));
                 }
+                if (str == null) {
+                    // use case: template fail
+                    str = "";
+                }
                 if (str.isEmpty() && ast.getErrors() != null) {
                     return ast.getErrorString();
                 }
@@ -605,6 +686,37 @@ public final class MyJPanelQuery extends JPanel {
         }
     }
 
+    /** Add the rows of the next page of results at the end of the document of the XML/RDF tab */
+    void nextResultPage() {
+        if (pager == null || !pager.hasNext() || appending) {
+            return;
+        }
+        appending = true;
+        try {
+            JTextArea area = getTextAreaXMLResult();
+            String rows = pager.next();
+            // rows of the next page go before the end of the document
+            int end = area.getDocument().getLength() - pager.getFooterLength();
+            area.insert(rows, Math.max(0, end));
+            displayPage();
+        } finally {
+            appending = false;
+        }
+    }
+
+    /** Results displayed out of the total, outside the text which remains one document */
+    void displayPage() {
+        labelXMLPage.setVisible(pager != null);
+        if (pager != null) {
+            labelXMLPage.setText(
+                    String.format(
+                            "Results 1 to %,d out of %,d%s",
+                            pager.getDisplayed(),
+                            pager.getMappings().size(),
+                            pager.hasNext() ? ", scroll down for more" : ""));
+        }
+    }
+
     String mapToString(Mappings map) {
         if (Property.stringValue(GUI_SELECT_FORMAT) != null) {
             switch (Property.stringValue(GUI_SELECT_FORMAT)) {
@@ -675,38 +787,21 @@ public final class MyJPanelQuery extends JPanel {
         if (q.isUpdate() && map.size() > 0) {
             vars = map.get(0).getQueryNodeList();
         }
-        DefaultTableModel model = new DefaultTableModel();
-
         int size = Math.min(maxres, map.size());
-
-        String[] col = new String[size];
-        for (int i = 0; i < size; i++) {
-            col[i] = Integer.toString(i + 1);
+        if (map.size() > maxres) {
+            logger.warn("Stop display after " + maxres + " results out of " + map.size());
         }
-        model.addColumn("num", col);
 
+        List<String> columns = new ArrayList<>();
         for (fr.inria.corese.core.kgram.api.core.Node var : vars) {
             if (accept(ast, var.getLabel())) {
-                String columnName = var.getLabel();
-                String[] colmunData = new String[size];
-                for (int j = 0; j < map.size(); j++) {
-                    if (j >= maxres) {
-                        logger.warn(
-                                "Stop display after " + maxres + " results out of " + map.size());
-                        break;
-                    }
-                    Mapping m = map.get(j);
-                    fr.inria.corese.core.kgram.api.core.Node value = m.getNode(columnName);
-
-                    if (value != null) {
-                        IDatatype dt = value.getValue();
-                        colmunData[j] = pretty(dt);
-                    }
-                }
-                model.addColumn(columnName, colmunData);
+                columns.add(var.getLabel());
             }
         }
+        // cells are formatted lazily when the table paints them
+        MappingsTableModel model = new MappingsTableModel(this, map, columns, size);
 
+        sortColumn = -1;
         if (sort >= 0) {
             sort(model, sort);
         }
@@ -726,27 +821,21 @@ public final class MyJPanelQuery extends JPanel {
         return tableResults.getModel();
     }
 
-    // table = model
-    void sort(DefaultTableModel table, int col) {
-        for (int i = 0; i < table.getRowCount(); i++) {
-            String v1 = (String) table.getValueAt(i, col);
+    // table = model, sort the row index, cells are not copied
+    void sort(MappingsTableModel table, int col) {
+        sort(table, col, true);
+    }
 
-            for (int j = i + 1; j < table.getRowCount(); j++) {
-                String v2 = (String) table.getValueAt(j, col);
-                if (v1.compareTo(v2) > 0) {
-                    swap(table, i, j);
-                    v1 = v2;
-                }
-            }
-        }
+    void sort(MappingsTableModel table, int col, boolean ascending) {
+        table.setIndex(MappingsSorter.sort(table, col, ascending));
+        sortColumn = col;
+        sortAscending = ascending;
     }
 
-    // swap row i and j
-    void swap(DefaultTableModel table, int i, int j) {
-        for (int k = 0; k < table.getColumnCount(); k++) {
-            Object temp = table.getValueAt(i, k);
-            table.setValueAt(table.getValueAt(j, k), i, k);
-            table.setValueAt(temp, j, k);
+    // click on column header: sort, click again: reverse order
+    void sortColumn(int col) {
+        if (getTable() instanceof MappingsTableModel) {
+            sort((MappingsTableModel) getTable(), col, col != sortColumn || !sortAscending);
         }
     }
 
@@ -814,7 +903,9 @@ public final class MyJPanelQuery extends JPanel {
         Query q = map.getQuery();
         ASTQuery ast = q.getAST();
         map.getQuery().isListGroup();
+        pager = null;
         getTextAreaXMLResult().setText(toString(map));
+        displayPage();
 
         // On affiche la version en arbre du résultat dans l'onglet Tree
         // crée un arbre de racine "root"
@@ -882,19 +973,27 @@ public final class MyJPanelQuery extends JPanel {
     }
 
     void displayGraph(fr.inria.corese.core.Graph g, NSManager nsm) {
-        graph = create(g, nsm);
+        // large graphs are displayed as clusters within a node budget
+        lod = new ClusteredGraph(this, g, nsm);
+        graph = lod.create();
         graph.addAttribute("ui.stylesheet", stylesheet);
         graph.addAttribute("ui.antialias");
         graph.addAttribute("ui.quality");
         textPaneStyleGraph.setText(stylesheet);
-        // Use a better layout for smoother visualization
-        SpringBox springLayout = new SpringBox();
-        springLayout.setQuality(0.95);
-        springLayout.setForce(0.85);
-        springLayout.setStabilizationLimit(0.8);
+        // layout is computed in background, the graph is displayed when it is done
+        if (layout != null) {
+            layout.cancel(true);
+        }
+        JLabel label = new JLabel("Layout …");
+        label.setFont(new Font("Sanserif", Font.PLAIN, 28));
+        scrollPaneTreeResult.setViewportView(label);
+        layout = new GraphLayout(graph, this::showGraph);
+        layout.execute();
+    }
 
+    /** Display a graph whose nodes have xyz coordinates */
+    void showGraph(MultiGraph graph) {
         Viewer sgv = new Viewer(graph, Viewer.ThreadingModel.GRAPH_IN_SWING_THREAD);
-        sgv.enableAutoLayout(springLayout);
         View sgr = sgv.addDefaultView(false);
 
         // Advanced view configuration for better zoom and pan
@@ -942,6 +1041,9 @@ public final class MyJPanelQuery extends JPanel {
                                                         10.0,
                                                         view.getCamera().getViewPercent()
                                                                 * zoomFactor)));
+                        if (lod != null) {
+                            lod.zoom(view.getCamera().getViewPercent());
+                        }
                     }
                 });
 
@@ -970,7 +1072,15 @@ public final class MyJPanelQuery extends JPanel {
                     }
 
                     @Override
-                    public void mouseClicked(MouseEvent e) {}
+                    public void mouseClicked(MouseEvent e) {
+                        if (lod != null && lod.isClustered()) {
+                            // click on a cluster displays its members
+                            GraphicElement elem = view.findNodeOrSpriteAt(e.getX(), e.getY());
+                            if (elem != null) {
+                                lod.expand(elem.getId());
+                            }
+                        }
+                    }
 
                     @Override
                     public void mouseEntered(MouseEvent e) {}
@@ -1071,7 +1181,7 @@ public final class MyJPanelQuery extends JPanel {
         }
     }
 
-    private boolean isStyle(fr.inria.corese.core.kgram.api.core.Edge edge) {
+    boolean isStyle(fr.inria.corese.core.kgram.api.core.Edge edge) {
         return edge.getEdgeLabel().equals(KGSTYLE);
     }
 
@@ -1160,11 +1270,14 @@ public final class MyJPanelQuery extends JPanel {
                         // Print load message
                         tabbedPaneResults.setEnabled(false);
 
-                        loadPanel = new JPanel(new BorderLayout());
-                        JLabel label = new JLabel("Loading …");
-                        label.setFont(new Font("Sanserif", Font.PLAIN, 28));
-                        loadPanel.add(label, BorderLayout.CENTER);
-                        tabbedPaneResults.add(loadPanel);
+                        // a query of this tab may still be running, it is replaced
+                        if (loadPanel == null || loadPanel.getParent() == null) {
+                            loadPanel = new JPanel(new BorderLayout());
+                            JLabel label = new JLabel("Loading …");
+                            label.setFont(new Font("Sanserif", Font.PLAIN, 28));
+                            loadPanel.add(label, BorderLayout.CENTER);
+                            tabbedPaneResults.add(loadPanel);
+                        }
 
                         tabbedPaneResults.setSelectedComponent(loadPanel);
 
@@ -1323,6 +1436,116 @@ public final class MyJPanelQuery extends JPanel {
         logger.info(String.format(mes, obj));
     }
 
+    /** Edit the limits of the queries of this tab */
+    void editLimits() {
+        JTextField timeout = new JTextField(Integer.toString(limits.getTimeout()), 8);
+        JTextField maxRows = new JTextField(Integer.toString(limits.getMaxRows()), 8);
+        JTextField maxHeap = new JTextField(Long.toString(limits.getMaxHeap()), 8);
+        JPanel panel = new JPanel(new GridLayout(4, 2, 5, 5));
+        panel.add(new JLabel("Timeout (s)"));
+        panel.add(timeout);
+        panel.add(new JLabel("Max rows"));
+        panel.add(maxRows);
+        panel.add(new JLabel("Max heap (MB)"));
+        panel.add(maxHeap);
+        panel.add(new JLabel("0 means no limit"));
+        int res =
+                JOptionPane.showConfirmDialog(
+                        this, panel, "Query limits", JOptionPane.OK_CANCEL_OPTION);
+        if (res != JOptionPane.OK_OPTION) {
+            return;
+        }
+        try {
+            QueryLimits ql = limits.copy();
+            ql.setTimeout(Integer.parseInt(timeout.getText().trim()));
+            ql.setMaxRows(Integer.parseInt(maxRows.getText().trim()));
+            ql.setMaxHeap(Long.parseLong(maxHeap.getText().trim()));
+            limits = ql;
+            logger.info("Query limits: " + limits);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Invalid number: " + ex.getMessage(),
+                    "Query limits",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /** Display why the result is partial, null when it is complete */
+    void setTruncated(String reason) {
+        truncated = reason;
+        labelTruncated.setText(reason == null ? "" : "Truncated: " + reason);
+    }
+
+    /** Display the profile of the query in the Profile tab, most expensive first */
+    void displayProfile(ProfileListener profile) {
+        DefaultTableModel model =
+                new DefaultTableModel(
+                        new Object[] {
+                            "Kind",
+                            "Expression",
+                            "Invocations",
+                            "Candidates",
+                            "Results",
+                            "Time (ms)"
+                        },
+                        0) {
+                    @Override
+                    public Class<?> getColumnClass(int col) {
+                        return col < 2 ? String.class : col < 5 ? Long.class : Double.class;
+                    }
+
+                    @Override
+                    public boolean isCellEditable(int row, int col) {
+                        return false;
+                    }
+                };
+        for (ProfileListener.Stat stat : profile.getStats()) {
+            model.addRow(
+                    new Object[] {
+                        stat.getKind(),
+                        stat.getLabel(),
+                        stat.getInvocations(),
+                        stat.getCandidates(),
+                        stat.getResults(),
+                        Math.round(stat.getTime() / 1e3) / 1e3
+                    });
+        }
+        tableProfile.setModel(model);
+        tableProfile.getColumnModel().getColumn(1).setPreferredWidth(500);
+        if (tabbedPaneResults.indexOfComponent(scrollPaneProfile) < 0) {
+            tabbedPaneResults.addTab("Profile", scrollPaneProfile);
+        }
+    }
+
+    public boolean isProfile() {
+        return checkProfile.isSelected();
+    }
+
+    /** Why the result is partial, null when it is complete */
+    public String getTruncated() {
+        return truncated;
+    }
+
+    /** The result is complete but for the rows beyond the max rows limit */
+    public boolean isRowLimited() {
+        return truncated != null && truncated.startsWith(QueryLimits.MAX_ROWS);
+    }
+
+    /** Text of the query of the result, null if none */
+    public String getResultQuery() {
+        return current == null ? null : current.getQuery();
+    }
+
+    /** Engine the query of the result was executed on, null if none */
+    public GraphEngine getResultEngine() {
+        return current == null ? null : current.getGraphEngine();
+    }
+
+    public QueryLimits getLimits() {
+        return limits;
+    }
+
     void setCurrent(Exec e) {
         current = e;
     }
@@ -1342,6 +1565,9 @@ public final class MyJPanelQuery extends JPanel {
 
     Exec newExec(MainFrame frame, String query, boolean trace) {
         Exec exec = new Exec(frame, query, trace);
+        exec.setPanel(this);
+        exec.setLimits(limits.copy());
+        exec.setProfile(checkProfile.isSelected());
         if (getGraphEngine() != null) {
             exec.setGraphEngine(getGraphEngine());
         }
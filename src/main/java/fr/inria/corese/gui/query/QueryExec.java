@@ -25,6 +25,8 @@ public class QueryExec {
     protected QueryProcess exec;
     protected boolean isListGroup = false, isDebug = false;
     protected ArrayList<EventListener> list;
+    // the limit of the last query was reduced to a max number of rows
+    private boolean limited = false;
 
     public QueryExec() {
         list = new ArrayList<EventListener>();
@@ -91,6 +93,22 @@ public class QueryExec {
         return map;
     }
 
+    /** Query with at most maxRows results: the limit of the compiled query is reduced */
+    public Mappings SPARQLQuery(String squery, int maxRows) throws EngineException {
+        exec.prepare();
+        Query q = exec.compile(squery);
+        limited = false;
+        if (!q.getAST().isUpdate() && !q.isTemplate() && q.getLimit() > maxRows) {
+            q.setLimit(maxRows);
+            limited = true;
+        }
+        return exec.query(q);
+    }
+
+    public boolean isLimited() {
+        return limited;
+    }
+
     // Mappings for transformer
     public Mappings SPARQLQuery(String squery, Mappings amap) throws EngineException {
         if (amap == null) {
@@ -0,0 +1,80 @@
+package fr.inria.corese.gui.query;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Limits of a query run: wall clock timeout, max number of result rows and max growth of the
+ * heap used by live objects while it runs, measured after garbage collection. A limit of 0 means
+ * no limit. Defaults are read from corese.gui.query.timeout (s), corese.gui.query.maxRows and
+ * corese.gui.query.maxHeap (MB). Whatever the limits, queries are stopped when the heap is nearly
+ * full, see corese.gui.query.heapThreshold.
+ */
+public class QueryLimits {
+
+    static final long MB = 1024 * 1024;
+    // prefix of the reason of a result truncated by maxRows
+    static final String MAX_ROWS = "max rows of ";
+
+    private int timeout;
+    private int maxRows;
+    private long maxHeap;
+
+    public QueryLimits(int timeout, int maxRows, long maxHeap) {
+        this.timeout = timeout;
+        this.maxRows = maxRows;
+        this.maxHeap = maxHeap;
+    }
+
+    public static QueryLimits create() {
+        return new QueryLimits(
+                GuiOptions.intValue("query.timeout", 0),
+                GuiOptions.intValue("query.maxRows", 0),
+                GuiOptions.longValue("query.maxHeap", 0));
+    }
+
+    public QueryLimits copy() {
+        return new QueryLimits(timeout, maxRows, maxHeap);
+    }
+
+    /** Timeout in seconds */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public void setMaxRows(int maxRows) {
+        this.maxRows = Math.max(0, maxRows);
+    }
+
+    /** Max heap growth in MB */
+    public long getMaxHeap() {
+        return maxHeap;
+    }
+
+    public void setMaxHeap(long maxHeap) {
+        this.maxHeap = Math.max(0, maxHeap);
+    }
+
+    /** Reason why a running query must be stopped, null if it is within its limits */
+    String check(long elapsed, long heap) {
+        if (timeout > 0 && elapsed > timeout * 1000L) {
+            return "timeout of " + timeout + " s";
+        } else if (maxHeap > 0 && heap > maxHeap * MB) {
+            return "heap limit of " + maxHeap + " MB";
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "timeout: %s s, max rows: %s, max heap: %s MB", timeout, maxRows, maxHeap);
+    }
+}
@@ -0,0 +1,162 @@
+package fr.inria.corese.gui.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.gui.util.GuiOptions;
+
+/**
+ * Run query Exec on a bounded pool of corese.gui.query.threads threads. Queries of the same tab
+ * run one after the other: a new query cancels the running one of its tab and starts when it is
+ * finished. Submitted Exec are recorded for the Running queries view. A watchdog stops queries
+ * that exceed their QueryLimits and stops every running query when the heap is nearly full after
+ * garbage collection, see HeapMonitor. Trace queries wait for the user between steps: they run
+ * on their own threads so that they never hold a thread of the pool.
+ */
+public class QueryScheduler {
+
+    private static final Logger logger = LogManager.getLogger(QueryScheduler.class.getName());
+    // finished Exec kept for the Running queries view
+    static final int HISTORY = 100;
+    // period of the check of time and heap limits of running queries
+    static final int WATCH_PERIOD = 250;
+
+    private final ExecutorService pool;
+    // unbounded, for trace queries
+    private final ExecutorService debugPool;
+    private final ScheduledExecutorService watchdog;
+    private final HeapMonitor heapMonitor;
+    // tab -> completion of the last Exec submitted for this tab
+    private final Map<Object, CompletableFuture<Void>> lanes = new HashMap<>();
+    private final List<Exec> execs = new ArrayList<>();
+
+    public QueryScheduler() {
+        this(
+                GuiOptions.intValue(
+                        "query.threads",
+                        Math.max(2, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    public QueryScheduler(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        pool =
+                Executors.newFixedThreadPool(
+                        Math.max(1, threads),
+                        r -> {
+                            Thread t = new Thread(r, "corese-query-" + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+        debugPool =
+                Executors.newCachedThreadPool(
+                        r -> {
+                            Thread t = new Thread(r, "corese-query-debug");
+                            t.setDaemon(true);
+                            return t;
+                        });
+        watchdog =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread t = new Thread(r, "corese-query-watchdog");
+                            t.setDaemon(true);
+                            return t;
+                        });
+        watchdog.scheduleAtFixedRate(
+                this::checkLimits, WATCH_PERIOD, WATCH_PERIOD, TimeUnit.MILLISECONDS);
+        heapMonitor = new HeapMonitor(this::lowMemory);
+    }
+
+    /** Called after a garbage collection that leaves the heap nearly full */
+    void lowMemory() {
+        for (Exec exec : getExecs()) {
+            if (exec.getState() == Exec.State.RUNNING) {
+                exec.stop("low memory, heap above " + HeapMonitor.THRESHOLD + "% after GC");
+            }
+        }
+    }
+
+    /** Stop running queries that exceed their limits */
+    void checkLimits() {
+        try {
+            for (Exec exec : getExecs()) {
+                if (exec.getState() == Exec.State.RUNNING) {
+                    exec.checkLimits();
+                }
+            }
+        } catch (RuntimeException ex) {
+            // an exception would cancel next checks
+            logger.error("Query watchdog", ex);
+        }
+    }
+
+    /** Queue exec behind the previous query of its tab, which is cancelled */
+    public synchronized void submit(Exec exec) {
+        Object lane = exec.getPanel() == null ? exec : exec.getPanel();
+        for (Exec previous : execs) {
+            if (previous.getPanel() == exec.getPanel() && !previous.isFinished()) {
+                // its partial result is not displayed
+                previous.setSuperseded(true);
+                previous.finish(false);
+            }
+        }
+        CompletableFuture<Void> previous =
+                lanes.getOrDefault(lane, CompletableFuture.completedFuture(null));
+        CompletableFuture<Void> next =
+                previous.handle((res, ex) -> null)
+                        .thenRunAsync(exec::execute, exec.isDebug() ? debugPool : pool);
+        lanes.put(lane, next);
+        execs.add(exec);
+        if (execs.size() > HISTORY) {
+            prune();
+        }
+        next.whenComplete((res, ex) -> release(lane, next, ex));
+    }
+
+    synchronized void release(Object lane, CompletableFuture<Void> future, Throwable ex) {
+        if (ex != null) {
+            logger.error("Query failed", ex);
+        }
+        lanes.remove(lane, future);
+    }
+
+    /** Remove oldest finished Exec beyond HISTORY */
+    void prune() {
+        int extra = execs.size() - HISTORY;
+        for (int i = 0; i < execs.size() && extra > 0; ) {
+            if (execs.get(i).isFinished()) {
+                execs.remove(i);
+                extra--;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /** Snapshot of submitted Exec, oldest first */
+    public synchronized List<Exec> getExecs() {
+        return new ArrayList<>(execs);
+    }
+
+    /** Forget finished Exec */
+    public synchronized void clearFinished() {
+        execs.removeIf(Exec::isFinished);
+    }
+
+    public void shutdown() {
+        heapMonitor.close();
+        watchdog.shutdownNow();
+        pool.shutdownNow();
+        debugPool.shutdownNow();
+    }
+}
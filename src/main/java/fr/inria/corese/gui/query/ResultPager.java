@@ -0,0 +1,107 @@
+package fr.inria.corese.gui.query;
+
+import fr.inria.corese.core.kgram.core.Mappings;
+
+/**
+ * Serialize query results page by page for the XML/RDF tab. The first page is displayed
+ * immediately as a complete document, next pages are serialized on demand when the user scrolls
+ * to the end of the text, hence the whole result is never held as one String. Only the result
+ * rows of next pages are kept, they are inserted before the footer of the document which remains
+ * one XML or JSON document. In other formats, next pages are appended after a separator line.
+ */
+public class ResultPager {
+
+    private final MyJPanelQuery panel;
+    private final Mappings map;
+    private final int pageSize;
+    // index of first mapping of next page
+    private int next = 0;
+    // end of the document after the rows, null when the rows of the format are not known
+    private String footer;
+    private boolean json;
+
+    ResultPager(MyJPanelQuery panel, Mappings map, int pageSize) {
+        this.panel = panel;
+        this.map = map;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    boolean hasNext() {
+        return next < map.size();
+    }
+
+    /**
+     * Serialize next page in the format of the GUI: the whole document for the first page, then
+     * the rows to insert getFooterLength() characters before the end of the text.
+     */
+    String next() {
+        int start = next;
+        int end = Math.min(map.size(), start + pageSize);
+        next = end;
+        String doc = panel.mapToString(page(start, end));
+        if (start == 0) {
+            findFooter(doc);
+            return doc;
+        }
+        if (footer == null) {
+            return String.format("%n# Results %,d to %,d%n%s", start + 1, end, doc);
+        }
+        int[] rows = rows(doc);
+        if (rows == null) {
+            return "";
+        }
+        String str = doc.substring(rows[0], rows[1]).strip();
+        return (json ? ",\n" : "\n") + str;
+    }
+
+    /** Find the footer of the first page: the end of the bindings array or results element */
+    void findFooter(String doc) {
+        json = doc.stripLeading().startsWith("{");
+        int[] rows = rows(doc);
+        if (rows != null) {
+            // the rows of next pages are inserted right after the last row
+            int last = rows[0] + doc.substring(rows[0], rows[1]).stripTrailing().length();
+            footer = doc.substring(last);
+        }
+    }
+
+    /** Start and end of the rows of a document, null when they are not found */
+    int[] rows(String doc) {
+        int start, end;
+        if (json) {
+            int bindings = doc.indexOf("\"bindings\"");
+            start = bindings < 0 ? -1 : doc.indexOf('[', bindings) + 1;
+            end = doc.lastIndexOf(']');
+        } else {
+            start = doc.indexOf("<results>");
+            start = start < 0 ? -1 : start + "<results>".length();
+            end = doc.lastIndexOf("</results>");
+        }
+        return start <= 0 || end < start ? null : new int[] {start, end};
+    }
+
+    /** Length of the end of the text the rows of next pages are inserted before */
+    int getFooterLength() {
+        return footer == null ? 0 : footer.length();
+    }
+
+    /** Mappings with the results from start to end, mappings are shared, not copied */
+    Mappings page(int start, int end) {
+        if (start == 0 && end == map.size()) {
+            return map;
+        }
+        Mappings page = Mappings.create(map.getQuery());
+        for (int i = start; i < end; i++) {
+            page.add(map.get(i));
+        }
+        return page;
+    }
+
+    int getDisplayed() {
+        return next;
+    }
+
+    Mappings getMappings() {
+        return map;
+    }
+}
@@ -0,0 +1,148 @@
+package fr.inria.corese.gui.query;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Running queries view: queries submitted to the QueryScheduler with their tab, state, elapsed
+ * time and number of results. Selected queries can be cancelled. The table is refreshed
+ * periodically while the dialog is visible.
+ */
+public class RunningQueriesDialog extends JDialog {
+
+    private static final long serialVersionUID = 1L;
+    static final int REFRESH_DELAY = 500;
+    static final int QUERY_LENGTH = 80;
+    static final String[] COLUMNS = {"Tab", "Query", "State", "Elapsed (s)", "Results"};
+
+    private final QueryScheduler scheduler;
+    private final JTabbedPane tabs;
+    private final ExecTableModel model;
+    private final JTable table;
+    private final Timer timer;
+
+    public RunningQueriesDialog(JFrame owner, QueryScheduler scheduler, JTabbedPane tabs) {
+        super(owner, "Running queries", false);
+        this.scheduler = scheduler;
+        this.tabs = tabs;
+        this.model = new ExecTableModel();
+        this.table = new JTable(model);
+        this.timer = new Timer(REFRESH_DELAY, e -> model.refresh());
+
+        JButton cancel = new JButton("Cancel selected");
+        cancel.addActionListener(e -> cancelSelected());
+        JButton clear = new JButton("Clear finished");
+        clear.addActionListener(
+                e -> {
+                    scheduler.clearFinished();
+                    model.refresh();
+                });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancel);
+        buttons.add(clear);
+
+        setLayout(new BorderLayout());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        setSize(700, 300);
+        setLocationRelativeTo(owner);
+    }
+
+    /** Close hides the dialog, the refresh timer runs only while it is visible */
+    @Override
+    public void setVisible(boolean b) {
+        if (b) {
+            model.refresh();
+            timer.start();
+        } else {
+            timer.stop();
+        }
+        super.setVisible(b);
+    }
+
+    void cancelSelected() {
+        for (int row : table.getSelectedRows()) {
+            model.getExec(table.convertRowIndexToModel(row)).finish(false);
+        }
+        model.refresh();
+    }
+
+    String tabName(Exec exec) {
+        int index = tabs.indexOfComponent(exec.getPanel());
+        return index < 0 ? "closed" : tabs.getTitleAt(index);
+    }
+
+    static String summary(String query) {
+        String str = query == null ? "" : query.trim().replaceAll("\\s+", " ");
+        return str.length() > QUERY_LENGTH ? str.substring(0, QUERY_LENGTH) + " …" : str;
+    }
+
+    class ExecTableModel extends AbstractTableModel {
+
+        private static final long serialVersionUID = 1L;
+        private List<Exec> execs = new ArrayList<>();
+
+        void refresh() {
+            // keep the selection of rows that are still displayed
+            int[] selected = table.getSelectedRows();
+            List<Exec> previous = execs;
+            execs = scheduler.getExecs();
+            fireTableDataChanged();
+            for (int row : selected) {
+                int index = row < previous.size() ? execs.indexOf(previous.get(row)) : -1;
+                if (index >= 0) {
+                    table.addRowSelectionInterval(index, index);
+                }
+            }
+        }
+
+        Exec getExec(int row) {
+            return execs.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return execs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int col) {
+            return COLUMNS[col];
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            Exec exec = execs.get(row);
+            switch (col) {
+                case 0:
+                    return tabName(exec);
+                case 1:
+                    return summary(exec.getQuery());
+                case 2:
+                    return exec.getState();
+                case 3:
+                    return String.format("%.1f", exec.getElapsed() / 1000.0);
+                default:
+                    int count = exec.getResultCount();
+                    return count < 0 ? "" : count;
+            }
+        }
+    }
+}
@@ -5,11 +5,18 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.AbstractAction;
 import javax.swing.JFrame;
@@ -29,9 +36,11 @@ import javax.swing.event.UndoableEditListener;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultHighlighter;
 import javax.swing.text.Document;
+import javax.swing.text.Element;
 import javax.swing.text.Highlighter;
 import javax.swing.text.JTextComponent;
 import javax.swing.text.MutableAttributeSet;
+import javax.swing.text.Position;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
@@ -123,7 +132,6 @@ public class SparqlQueryEditor extends JPanel
     private JTextPane textPaneQuery;
     private JTextArea textAreaLines;
     private boolean isColoring;
-    private int temp3;
     private int temp;
     private Object start, end;
     private Highlighter highlighter;
@@ -134,16 +142,56 @@ public class SparqlQueryEditor extends JPanel
 
     ArrayList<String> listWords = new ArrayList<>();
     ArrayList<String> listFunctions = new ArrayList<>();
+    // lower case keywords, and second word of two words keywords such as order by
+    private Set<String> keywords = new HashSet<>();
+    private Map<String, String> keywordPairs = new HashMap<>();
+    private Set<String> functions = new HashSet<>();
+
+    // damaged text waiting for coloring, null when the coloring is up to date
+    private Position damageStart, damageEnd;
+    private boolean visiblePending = false;
+    // max number of lines colored in one pass of the EDT
+    static final int CHUNK = 500;
+    private Style styleKeyword, styleNormal, styleComment, styleQuote, styleFunction;
 
     void init() {
         this.undoManager = new UndoManager();
         this.undoRedoOperations();
         for (String word : kw) {
             listWords.add(word);
+            String[] words = word.split(" ");
+            if (words.length == 2) {
+                keywordPairs.put(words[0], words[1]);
+            } else {
+                keywords.add(word);
+            }
         }
         for (String word : fun) {
             listFunctions.add(word);
+            functions.add(word.toLowerCase(Locale.ROOT));
         }
+        initStyles();
+    }
+
+    /** We define the different fonts to use. */
+    void initStyles() {
+        StyleContext sc = new StyleContext();
+        // style for keywords
+        styleKeyword = sc.addStyle("style", null);
+        styleKeyword.addAttribute(StyleConstants.Foreground, Color.BLUE);
+
+        styleNormal = sc.addStyle("normal", null);
+        styleNormal.addAttribute(StyleConstants.Foreground, Color.BLACK);
+
+        styleComment = sc.addStyle("comm", null);
+        styleComment.addAttribute(StyleConstants.Foreground, Color.BLACK);
+        styleComment.addAttribute(StyleConstants.CharacterConstants.Italic, Boolean.TRUE);
+
+        styleQuote = sc.addStyle("quote", null);
+        styleQuote.addAttribute(StyleConstants.Foreground, Color.GREEN);
+
+        styleFunction = sc.addStyle("function", null);
+        styleFunction.addAttribute(StyleConstants.CharacterConstants.Bold, Boolean.TRUE);
     }
 
     public SparqlQueryEditor() {
@@ -245,31 +293,28 @@ public class SparqlQueryEditor extends JPanel
 
     @Override
     public void changedUpdate(DocumentEvent e) {
+        // attribute change only, text is unchanged
         this.checkLines(textPaneQuery, textAreaLines);
-        doColoringLater();
     }
 
     @Override
     public void insertUpdate(DocumentEvent e) {
         this.checkLines(textPaneQuery, textAreaLines);
-        doColoringLater();
+        damage(e.getOffset(), e.getOffset() + e.getLength());
     }
 
     @Override
     public void removeUpdate(DocumentEvent e) {
         this.checkLines(textPaneQuery, textAreaLines);
-        doColoringLater();
+        damage(e.getOffset(), e.getOffset());
     }
 
     @Override
-    public void focusGained(FocusEvent e) {
-        doColoringLater();
-    }
+    public void focusGained(FocusEvent e) {}
 
     @Override
     public void focusLost(FocusEvent e) {
         this.checkLines(textPaneQuery, textAreaLines);
-        doColoringLater();
     }
 
     private void clearHighlights() {
@@ -333,20 +378,9 @@ public class SparqlQueryEditor extends JPanel
             }
             // Marking all occurrences of current variable token
             // Known bug: $t and ?t are considered different variables
-            String text = doc.getText(0, doc.getLength());
-            String[] tokens = text.split("\\s"); // This is lazy.
-            for (String token : tokens) {
-                if (token.length() > 1) {
-                    if (token.startsWith("?") || token.startsWith("$")) {
-                        for (int index = text.indexOf(token);
-                                index >= 0;
-                                index = text.indexOf(token, index + 1)) {
-                            if (index <= e.getDot() && (index + token.length()) >= e.getDot()) {
-                                this.highlightVars(token, text);
-                            }
-                        }
-                    }
-                }
+            String token = variableAt(doc, e.getDot());
+            if (token != null) {
+                this.highlightVars(token, doc.getText(0, doc.getLength()));
             }
         } catch (BadLocationException e1) {
             e1.printStackTrace();
@@ -365,6 +399,41 @@ public class SparqlQueryEditor extends JPanel
         }
     }
 
+    /** Variable token around position dot, read from the current line only */
+    private static String variableAt(Document doc, int dot) throws BadLocationException {
+        Element root = doc.getDefaultRootElement();
+        Element line = root.getElement(root.getElementIndex(dot));
+        int lineStart = line.getStartOffset();
+        int lineEnd = Math.min(line.getEndOffset(), doc.getLength());
+        String text = doc.getText(lineStart, lineEnd - lineStart);
+        int pos = dot - lineStart;
+        int start = pos;
+        while (start > 0 && isNameChar(text.charAt(start - 1))) {
+            start--;
+        }
+        if (start > 0 && isVarStart(text.charAt(start - 1))) {
+            start--;
+        } else if (start >= text.length() || !isVarStart(text.charAt(start))) {
+            return null;
+        }
+        int end = isVarStart(text.charAt(start)) ? start + 1 : start;
+        while (end < text.length() && isNameChar(text.charAt(end))) {
+            end++;
+        }
+        if (end - start < 2) {
+            return null;
+        }
+        return text.substring(start, end);
+    }
+
+    private static boolean isVarStart(char c) {
+        return c == '?' || c == '$';
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+
     /** Returns the character at position p in the document */
     private static char getCharAt(Document doc, int p) throws BadLocationException {
         return doc.getText(p, 1).charAt(0);
@@ -398,324 +467,190 @@ public class SparqlQueryEditor extends JPanel
         textPaneQuery.setText(newRequest);
     }
 
-    private void search() {
-        /** Initialisation des variables */
-        int startQuote = 0, startComm = 0, start = 0, stop = 0;
-        CharSequence content = null;
-        Document d = textPaneQuery.getDocument();
-        boolean b_word = false, b_wordUpper = false;
-        boolean b_quote = false;
-        boolean b_function = false, b_functionUpper = false;
+    /** Color the whole query */
+    void search() {
+        Element root = textPaneQuery.getDocument().getDefaultRootElement();
+        color(0, root.getElementCount() - 1);
+    }
 
+    /** Record that text between start and end changed, coloring is done later on the EDT */
+    void damage(int start, int end) {
+        Document d = textPaneQuery.getDocument();
         try {
-            content = d.getText(0, d.getLength());
+            if (damageStart != null) {
+                start = Math.min(start, damageStart.getOffset());
+                end = Math.max(end, damageEnd.getOffset());
+            }
+            damageStart = d.createPosition(Math.min(start, d.getLength()));
+            damageEnd = d.createPosition(Math.min(end, d.getLength()));
+            visiblePending = true;
         } catch (BadLocationException e) {
-            e.printStackTrace();
+            logger.error(e);
         }
+        doColoringLater();
+    }
 
-        /**
-         * The different ArrayLists allow us to store the indexes of words to color and also the
-         * words that need to be searched for
-         */
-        ArrayList<Integer> tabStartWord = new ArrayList<>();
-        ArrayList<Integer> tabStopWord = new ArrayList<>();
-
-        ArrayList<Integer> tabStartComm = new ArrayList<>();
-        ArrayList<Integer> tabStopComm = new ArrayList<>();
-
-        ArrayList<Integer> tabStartQuote = new ArrayList<>();
-        ArrayList<Integer> tabStopQuote = new ArrayList<>();
-
-        ArrayList<Integer> tabStartFunction = new ArrayList<>();
-        ArrayList<Integer> tabStopFunction = new ArrayList<>();
-
-        /** We define the different fonts to use. */
-        StyleContext sc = new StyleContext();
-        // style for keywords
-        Style style = sc.addStyle("style", null);
-        style.addAttribute(StyleConstants.Foreground, Color.BLUE); // new Color(255, 102, 102));
-
-        Style normal = sc.addStyle("normal", null);
-        normal.addAttribute(StyleConstants.Foreground, Color.BLACK);
-
-        Style comm = sc.addStyle("comm", null);
-        comm.addAttribute(StyleConstants.Foreground, Color.BLACK);
-        comm.addAttribute(StyleConstants.CharacterConstants.Italic, Boolean.TRUE);
-
-        Style quote = sc.addStyle("quote", null);
-        quote.addAttribute(StyleConstants.Foreground, Color.GREEN);
-
-        Style function = sc.addStyle("function", null);
-        function.addAttribute(StyleConstants.CharacterConstants.Bold, Boolean.TRUE);
-
-        /** For searching words */
-        for (String kw : listWords) {
-
-            // search occurrences of keyword in text
-            // record positions of kw
-            for (int i = temp; i < d.getLength(); i++) {
-                // fichier temporaire qui tronque le fichier result a partir du String=toSearch
-                // afin
-                // de trouver les prochains String
-                b_word = content.toString().contains(kw);
-                b_wordUpper = content.toString().contains(kw.toUpperCase());
-
-                if (b_word || b_wordUpper) {
-                    if (b_word == true) {
-                        start =
-                                content.toString()
-                                        .indexOf(kw); // stocke dans le tableau afin de le surligner
-                        // plus tard
-                        assert (start > -1);
-                        stop = start + kw.length();
-                    } else {
-                        start =
-                                content.toString()
-                                        .indexOf(kw.toUpperCase()); // Cherche le mot en majuscule
-                        assert (start > -1);
-                        stop = start + kw.toUpperCase().length();
-                    }
-                    char temp2;
-                    char temp3;
-
-                    if (start == 0 && stop == content.length()) {
-                        temp2 = ' ';
-                        temp3 = ' ';
-                    } else if (start == 0) { // beginning case, no need for space before the word
-                        temp2 = ' ';
-                        temp3 = content.charAt(stop);
-                    } else if (stop == content.length()) { // end case, no need for space after the
-                        // word
-                        temp2 = content.charAt(start - 1);
-                        temp3 = ' ';
-                    } else { // general case
-                        temp2 = content.charAt(start - 1);
-                        temp3 = content.charAt(stop);
-                    }
-
-                    if ((temp2 == ' ' || temp2 == '\n' || temp2 == '}')
-                            && (temp3 == ' '
-                                    || temp3 == '\n'
-                                    || temp3 == '{')) { // we check that we are indeed between two
-                        // spaces or between a line break
-                        tabStartWord.add(start + temp);
-                        tabStopWord.add(stop + temp);
-                    }
-
-                    // allows maintaining the relationship between the temporary file and the base
-                    // file
-                    // (JTextArea)
-                    // keeps stop and start numbers updated, which are distorted by subSequence
-                    temp += stop;
-                    content = (content.subSequence(stop, content.length()));
-                } else {
-                    break;
-                }
-            }
-
-            try {
-                content = d.getText(0, d.getLength());
-                stop = 0;
-                start = 0;
-                temp = 0;
-            } catch (BadLocationException e) {
-                e.printStackTrace();
-            }
+    /**
+     * Color the damaged lines. A large damage (e.g. paste of a generated query) is colored by
+     * chunks of lines, visible lines first, so the EDT is never blocked for long.
+     */
+    void colorDamage() {
+        if (damageStart == null) {
+            return;
         }
-
-        /** Pour la recherche des # (les commentaires) */
-        for (int j = 0; j < getTextAreaLines().getLineCount() - 1; j++) {
-            int lineStartOffset = 0;
-            if (lineStartOffset == d.getLength()) {
-                break;
-            }
-            if (content.toString().charAt(lineStartOffset) == '#') {
-                startComm = lineStartOffset;
-                tabStartComm.add(startComm); // we add the start index to our arraylist
-                while (content.charAt(startComm) != '\n'
-                        && startComm
-                                < (d.getLength()
-                                        - 1)) { // we search for the line break to determine
-                    // the final character index
-                    startComm++;
-                }
-                if (j
-                        == getTextAreaLines().getLineCount()
-                                - 2) { // using if to color differently according to the end
-                    // of the comment (line break or end of query)
-                    tabStopComm.add(startComm + 1);
-                } else {
-                    tabStopComm.add(startComm);
-                }
+        Document d = textPaneQuery.getDocument();
+        Element root = d.getDefaultRootElement();
+        int first = root.getElementIndex(Math.min(damageStart.getOffset(), d.getLength()));
+        int last = root.getElementIndex(Math.min(damageEnd.getOffset(), d.getLength()));
+        if (last - first < CHUNK) {
+            damageStart = damageEnd = null;
+            color(first, last);
+            return;
+        }
+        if (visiblePending) {
+            visiblePending = false;
+            int[] visible = visibleLines();
+            int vfirst = Math.max(first, visible[0]);
+            int vlast = Math.min(last, visible[1]);
+            if (vfirst <= vlast) {
+                color(vfirst, vlast);
             }
         }
-
+        color(first, first + CHUNK - 1);
         try {
-            content = d.getText(0, d.getLength());
+            damageStart = d.createPosition(root.getElement(first + CHUNK).getStartOffset());
+        } catch (BadLocationException e) {
+            logger.error(e);
+            damageStart = damageEnd = null;
+            return;
+        }
+        SwingUtilities.invokeLater(this);
+    }
+
+    /** First and last line shown in the viewport */
+    int[] visibleLines() {
+        Element root = textPaneQuery.getDocument().getDefaultRootElement();
+        Rectangle r = textPaneQuery.getVisibleRect();
+        int start = textPaneQuery.viewToModel2D(new Point(r.x, r.y));
+        int end = textPaneQuery.viewToModel2D(new Point(r.x + r.width, r.y + r.height));
+        return new int[] {
+            root.getElementIndex(Math.max(start, 0)), root.getElementIndex(Math.max(end, 0))
+        };
+    }
 
+    /** Reset then color the lines from first to last, lines are tokenized independently */
+    void color(int first, int last) {
+        StyledDocument d = textPaneQuery.getStyledDocument();
+        Element root = d.getDefaultRootElement();
+        int start = root.getElement(first).getStartOffset();
+        int end = Math.min(root.getElement(last).getEndOffset(), d.getLength());
+        if (end <= start) {
+            return;
+        }
+        String text;
+        try {
+            text = d.getText(start, end - start);
         } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-
-        /** For searching " (character strings) */
-        boolean isComm = false;
-        int pair = 1;
-        // variable to determine if opening " or closing "
-        for (int i = temp3;
-                i < d.getLength();
-                i++) { // allows coloring characters between "" with a certain color
-            startQuote = 0;
-            isComm = false;
-            b_quote = content.toString().contains("\"");
-            if (b_quote == true) {
-                startQuote = content.toString().indexOf("\"");
-                for (int j = 0;
-                        j < tabStartComm.size();
-                        j++) { // si le guillemet se situe dans un commentaire => met a
-                    // jour le temp
-                    // a la fin du comm et on ne rempli pas le tableau
-                    if (startQuote <= (tabStopComm.get(j) - temp3)
-                            && startQuote >= (tabStartComm.get(j) - temp3)) {
-                        isComm = true;
-                        temp3 += startQuote + 1;
-                    }
+            logger.error(e);
+            return;
+        }
+        d.setCharacterAttributes(start, end - start, styleNormal, true);
+        lex(d, text, start);
+    }
+
+    /** Tokenize text and style comments, strings, keywords and functions */
+    void lex(StyledDocument d, String text, int offset) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '#') {
+                int j = endOfLine(text, i);
+                d.setCharacterAttributes(offset + i, j - i, styleComment, false);
+                i = j;
+            } else if (c == '"' || c == '\'') {
+                int j = endOfString(text, i, c);
+                d.setCharacterAttributes(offset + i, j - i, styleQuote, false);
+                i = j;
+            } else if (c == '<') {
+                i = endOfIRI(text, i);
+            } else if (isVarStart(c)) {
+                i = endOfName(text, i + 1);
+            } else if (Character.isLetter(c)) {
+                int j = endOfName(text, i);
+                if (j < length && text.charAt(j) == ':') {
+                    // prefixed name
+                    i = endOfName(text, j + 1);
+                    continue;
                 }
-                if (!isComm) {
-                    if (pair >= 0
-                            && pair % 2 == 1) { // if opening quote, we store the current character
-                        // index
-                        // in the start index arraylist
-                        tabStartQuote.add(startQuote + temp3);
-                    } else { // otherwise we store the character index in the end index arraylist
-                        temp3 += 2; // we increment by 2 to also color the quotes
-                        tabStopQuote.add(startQuote + temp3);
+                String word = text.substring(i, j).toLowerCase(Locale.ROOT);
+                if (keywordPairs.containsKey(word)) {
+                    int k = j;
+                    while (k < length && (text.charAt(k) == ' ' || text.charAt(k) == '\t')) {
+                        k++;
+                    }
+                    int l = endOfName(text, k);
+                    if (l > k
+                            && text.substring(k, l)
+                                    .toLowerCase(Locale.ROOT)
+                                    .equals(keywordPairs.get(word))) {
+                        d.setCharacterAttributes(offset + i, l - i, styleKeyword, false);
+                        i = l;
+                        continue;
                     }
-                    pair++;
-                    temp3 += startQuote;
                 }
-                content =
-                        (content.subSequence(
-                                startQuote + 1,
-                                content.length())); // decoupe la chaine pour trouver le prochain
-                // guillemet
+                if (keywords.contains(word)) {
+                    d.setCharacterAttributes(offset + i, j - i, styleKeyword, false);
+                } else if (functions.contains(word) && j < length && text.charAt(j) == '(') {
+                    d.setCharacterAttributes(offset + i, j - i, styleFunction, false);
+                }
+                i = j;
+            } else {
+                i++;
             }
         }
-        try {
-            content = d.getText(0, d.getLength());
-            temp3 = 0;
-        } catch (BadLocationException e) {
-            e.printStackTrace();
-        }
-
-        /** Pour la recherche des fonctions */
-        for (String fun : listFunctions) {
-
-            for (int i = temp; i < d.getLength(); i++) {
-                // fichier temporaire qui tronque le fichier result a partir du String=toSearch
-                // afin
-                // de trouver les prochains String
-                b_function = content.toString().contains(fun);
-                b_functionUpper = content.toString().contains(fun.toUpperCase());
-
-                if (b_function || b_functionUpper) {
-                    if (b_function) {
-                        start =
-                                content.toString()
-                                        .indexOf(
-                                                fun); // stocke dans le tableau afin de le surligner
-                        // plus tard
-                        assert (start > -1);
-                        stop = start + fun.length();
-                    } else {
-                        start =
-                                content.toString()
-                                        .indexOf(fun.toUpperCase()); // stocke dans le tableau
-                        // afin de le surligner
-                        // plus tard
-                        assert (start > -1);
-                        stop = start + fun.toUpperCase().length();
-                    }
-                    char temp2;
-                    char temp3 = 0;
-                    if (start == 0 && stop == content.length()) {
-                        temp2 = ' ';
-                        temp3 = ' ';
-                    } else if (start == 0) { // beginning case, no need for space before the word
-                        temp2 = ' ';
-                        temp3 = content.charAt(stop);
-                    } else if (stop == content.length()) { // end case, no need for space after the
-                        // word
-                        temp2 = content.charAt(start - 1);
-                    } else { // general case
-                        temp2 = content.charAt(start - 1);
-                        temp3 = content.charAt(stop);
-                    }
-                    if ((temp2 == ' ' || temp2 == '\n')
-                            && (temp3 == '(')) { // we check that we are indeed between two spaces
-                        // or between a line break
-                        tabStartFunction.add(start + temp);
-                        tabStopFunction.add(stop + temp); // to not include the parenthesis
-                    }
+    }
 
-                    // allows making the relationship between the temporary file and the base file
-                    // (JtextArea)
-                    // keeps the stop and start numbers updated that were skewed by the subSequence
-                    temp += stop;
-                    content = (content.subSequence(stop, content.length()));
-                } else {
-                    break;
-                }
+    static int endOfLine(String text, int i) {
+        int j = text.indexOf('\n', i);
+        return j < 0 ? text.length() : j;
+    }
+
+    // string ends at closing quote or at end of line
+    static int endOfString(String text, int i, char quote) {
+        int j = i + 1;
+        while (j < text.length() && text.charAt(j) != quote && text.charAt(j) != '\n') {
+            if (text.charAt(j) == '\\') {
+                j++;
             }
+            j++;
+        }
+        if (j < text.length() && text.charAt(j) == quote) {
+            j++;
+        }
+        return Math.min(j, text.length());
+    }
 
-            try {
-                content = d.getText(0, d.getLength());
-                stop = 0;
-                start = 0;
-                temp = 0;
-            } catch (BadLocationException e) {
-                e.printStackTrace();
+    // <iri> is skipped so that # in iri is not a comment, otherwise < is an operator
+    static int endOfIRI(String text, int i) {
+        int j = i + 1;
+        while (j < text.length()) {
+            char c = text.charAt(j);
+            if (c == '>') {
+                return j + 1;
+            } else if (Character.isWhitespace(c) || c == '<') {
+                break;
             }
+            j++;
         }
+        return i + 1;
+    }
 
-        textPaneQuery.getStyledDocument().setCharacterAttributes(0, content.length(), normal, true);
-
-        // ici on colorie le texte en fonction des données recueillis auparavant
-        for (int i = 0; i < tabStartWord.size(); i++) {
-            textPaneQuery
-                    .getStyledDocument()
-                    .setCharacterAttributes(
-                            tabStartWord.get(i),
-                            tabStopWord.get(i) - tabStartWord.get(i),
-                            style,
-                            false);
-        }
-        for (int i = 0; i < tabStartFunction.size(); i++) {
-            textPaneQuery
-                    .getStyledDocument()
-                    .setCharacterAttributes(
-                            tabStartFunction.get(i),
-                            tabStopFunction.get(i) - tabStartFunction.get(i),
-                            function,
-                            false);
-        }
-        for (int i = 0; i < tabStopQuote.size(); i++) {
-            textPaneQuery
-                    .getStyledDocument()
-                    .setCharacterAttributes(
-                            tabStartQuote.get(i),
-                            tabStopQuote.get(i) - tabStartQuote.get(i),
-                            quote,
-                            false);
-        }
-        for (int i = 0; i < tabStartComm.size(); i++) {
-            textPaneQuery
-                    .getStyledDocument()
-                    .setCharacterAttributes(
-                            tabStartComm.get(i),
-                            tabStopComm.get(i) - tabStartComm.get(i),
-                            comm,
-                            false);
+    static int endOfName(String text, int i) {
+        while (i < text.length() && isNameChar(text.charAt(i))) {
+            i++;
         }
+        return i;
     }
 
     public JTextArea getTextAreaLines() {
@@ -730,7 +665,7 @@ public class SparqlQueryEditor extends JPanel
     public void run() {
         isColoring = true;
         try {
-            this.search();
+            this.colorDamage();
 
         } finally {
             isColoring = false;
@@ -808,20 +743,20 @@ public class SparqlQueryEditor extends JPanel
     }
 
     private void checkLines(JTextComponent textComponentInput, JTextComponent textComponentOutput) {
-        String text = "";
+        StringBuilder text = new StringBuilder();
         Document doc2 = textComponentInput.getDocument();
         int lineCount = doc2.getDefaultRootElement().getElementCount();
         if (lineCount != this.old_line_number) {
             this.old_line_number = lineCount;
             for (int i = 1; i < lineCount + 1; i++) {
-                text += String.valueOf(i) + "\n";
+                text.append(i).append("\n");
             }
-            textComponentOutput.setText(text);
+            textComponentOutput.setText(text.toString());
         }
     }
 
     public void refreshColoring() {
-        doColoringLater();
+        damage(0, textPaneQuery.getDocument().getLength());
     }
 
     public String getQueryText() {
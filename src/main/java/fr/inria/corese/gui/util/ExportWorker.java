@@ -0,0 +1,118 @@
+package fr.inria.corese.gui.util;
+
+import java.awt.Component;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Write a file outside the Event Dispatch Thread with a progress monitor. The export reports the
+ * number of items written, it stops when the user cancels the monitor and the partial file is
+ * then deleted. The outcome is sent to the message consumer (the log pane of the GUI).
+ */
+public class ExportWorker extends SwingWorker<Long, Long> {
+
+    private static final Logger logger = LogManager.getLogger(ExportWorker.class.getName());
+
+    /** Write the items to the stream, report progress, stop when progress returns false */
+    public interface Export {
+        long write(OutputStream out, TripleWriter.Progress progress) throws Exception;
+    }
+
+    private final Path path;
+    private final long total;
+    private final String unit;
+    private final Export export;
+    private final Consumer<String> message;
+    private final ProgressMonitor monitor;
+    private long time;
+
+    /** total is the expected number of items, 0 if unknown */
+    public ExportWorker(
+            Component parent,
+            Path path,
+            long total,
+            String unit,
+            Export export,
+            Consumer<String> message) {
+        this.path = path;
+        this.total = total;
+        this.unit = unit;
+        this.export = export;
+        this.message = message;
+        this.monitor = new ProgressMonitor(parent, "Writing " + path.getFileName(), "", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+    }
+
+    @Override
+    protected Long doInBackground() throws Exception {
+        time = System.currentTimeMillis();
+        long count;
+        try (OutputStream out = Files.newOutputStream(path)) {
+            count = export.write(out, this::written);
+        }
+        if (isCancelled()) {
+            // done() is already called, the stream is closed now
+            delete();
+        }
+        return count;
+    }
+
+    boolean written(long count) {
+        publish(count);
+        return !isCancelled();
+    }
+
+    @Override
+    protected void process(List<Long> counts) {
+        if (monitor.isCanceled()) {
+            cancel(false);
+            return;
+        }
+        long count = counts.get(counts.size() - 1);
+        monitor.setNote(String.format("%,d %s", count, unit));
+        if (total > 0) {
+            monitor.setProgress((int) Math.min(99, count * 100 / total));
+        }
+    }
+
+    @Override
+    protected void done() {
+        monitor.close();
+        try {
+            long count = get();
+            double sec = Math.max(1, System.currentTimeMillis() - time) / 1000.0;
+            message.accept(
+                    String.format(
+                            "Writing the file : %s (%,d %s in %.3f s, %,.0f %s/s)\n",
+                            path, count, unit, sec, count / sec, unit));
+        } catch (CancellationException ex) {
+            message.accept("Export cancelled: " + path + "\n");
+        } catch (ExecutionException ex) {
+            delete();
+            logger.error("Export of " + path, ex.getCause());
+            message.accept("Export failed: " + ex.getCause() + "\n");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            logger.warn("Cannot delete " + path, ex);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package fr.inria.corese.gui.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.sparql.api.IDatatype;
+
+/**
+ * Binary snapshot of a graph. The header records the RDFS entailment and named graph load modes
+ * and the source files with their modification time and size, so that a snapshot can replace the
+ * parse of unchanged files. The body is a stream of records: a term record defines the next term
+ * of the string table, a quad record refers to four terms (graph, subject, predicate, object) by
+ * their index. Blank nodes get new labels when read. The snapshot is written through a buffered
+ * stream and read from memory mapped windows of the file.
+ */
+public class GraphSnapshot {
+
+    static final int MAGIC = 0x43534e50;
+    static final int VERSION = 1;
+    static final byte END = 0;
+    static final byte IRI = 1;
+    static final byte BLANK = 2;
+    static final byte LITERAL = 3;
+    static final byte QUAD = 4;
+    static final int BUFFER = 1 << 16;
+    // size of a mapped window of the file
+    static final long WINDOW = 1L << 28;
+
+    /** Source file of a snapshot */
+    public static class Source {
+        final String path;
+        final long modified;
+        final long size;
+
+        Source(String path, long modified, long size) {
+            this.path = path;
+            this.modified = modified;
+            this.size = size;
+        }
+
+        static Source create(String path) {
+            File file = new File(path);
+            return new Source(path, file.lastModified(), file.length());
+        }
+
+        boolean isFresh() {
+            File file = new File(path);
+            return file.isFile() && file.lastModified() == modified && file.length() == size;
+        }
+    }
+
+    /** Header of a snapshot */
+    public static class Header {
+        private final boolean rdfs;
+        private final boolean named;
+        private final List<Source> sources;
+
+        Header(boolean rdfs, boolean named, List<Source> sources) {
+            this.rdfs = rdfs;
+            this.named = named;
+            this.sources = sources;
+        }
+
+        /** RDFS entailment of the engine */
+        public boolean isRDFS() {
+            return rdfs;
+        }
+
+        /** Files were loaded in named graphs */
+        public boolean isNamed() {
+            return named;
+        }
+
+        public List<String> getPaths() {
+            List<String> list = new ArrayList<>();
+            sources.forEach(source -> list.add(source.path));
+            return list;
+        }
+
+        /** The snapshot is a copy of the parse of these files, which did not change since */
+        public boolean isFresh(List<String> paths, boolean rdfs, boolean named) {
+            return this.rdfs == rdfs
+                    && this.named == named
+                    && getPaths().equals(paths)
+                    && sources.stream().allMatch(Source::isFresh);
+        }
+    }
+
+    private GraphSnapshot() {}
+
+    /**
+     * Write the edges of the graph with the sources of its content, the stream is flushed but
+     * not closed. Return the number of quads written.
+     */
+    public static long write(
+            Graph graph,
+            OutputStream stream,
+            List<String> sources,
+            boolean rdfs,
+            boolean named,
+            TripleWriter.Progress progress)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeBoolean(rdfs);
+        out.writeBoolean(named);
+        out.writeInt(sources.size());
+        for (String path : sources) {
+            Source source = Source.create(path);
+            writeString(out, source.path);
+            out.writeLong(source.modified);
+            out.writeLong(source.size);
+        }
+        // N-Triples term -> index in the string table
+        Map<String, Integer> terms = new HashMap<>();
+        long count = 0;
+        for (Edge ent : graph.getEdges()) {
+            Edge edge = ent.getEdge();
+            int g = term(out, terms, edge.getGraph());
+            int s = term(out, terms, edge.getNode(0));
+            int p = term(out, terms, edge.getEdgeNode());
+            int o = term(out, terms, edge.getNode(1));
+            out.writeByte(QUAD);
+            out.writeInt(g);
+            out.writeInt(s);
+            out.writeInt(p);
+            out.writeInt(o);
+            count++;
+            if (count % TripleWriter.Progress.STEP == 0
+                    && progress != null
+                    && !progress.written(count)) {
+                break;
+            }
+        }
+        out.writeByte(END);
+        out.writeLong(count);
+        out.flush();
+        return count;
+    }
+
+    /** Index of the node in the string table, the term record is written the first time */
+    static int term(DataOutputStream out, Map<String, Integer> terms, Node node)
+            throws IOException {
+        String key = TripleWriter.term(node);
+        Integer index = terms.get(key);
+        if (index != null) {
+            return index;
+        }
+        IDatatype dt = node.getDatatypeValue();
+        if (dt.isBlank()) {
+            out.writeByte(BLANK);
+            writeString(out, dt.getLabel());
+        } else if (dt.isURI()) {
+            out.writeByte(IRI);
+            writeString(out, dt.getLabel());
+        } else {
+            out.writeByte(LITERAL);
+            writeString(out, dt.getLabel());
+            writeString(out, dt.getDatatypeURI() == null ? "" : dt.getDatatypeURI());
+            writeString(out, dt.getLang() == null ? "" : dt.getLang());
+        }
+        terms.put(key, terms.size());
+        return terms.size() - 1;
+    }
+
+    // writeUTF is limited to 64 KB
+    static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Read the header of a snapshot */
+    public static Header header(Path path) throws IOException {
+        try (Reader reader = new Reader(path)) {
+            return reader.header();
+        }
+    }
+
+    /** Add the quads of the snapshot to the graph, return the number of quads read */
+    public static long read(Path path, Graph graph) throws IOException {
+        try (Reader reader = new Reader(path)) {
+            reader.header();
+            return reader.quads(graph);
+        }
+    }
+
+    /** Term of the string table, its nodes are created on first use */
+    static class Term {
+        final byte kind;
+        final String label;
+        final String datatype;
+        final String lang;
+        // predicates and graphs are specific nodes
+        private Node node;
+        private Node property;
+        private Node graph;
+
+        Term(byte kind, String label, String datatype, String lang) {
+            this.kind = kind;
+            this.label = label;
+            this.datatype = datatype == null || datatype.isEmpty() ? null : datatype;
+            this.lang = lang == null || lang.isEmpty() ? null : lang;
+        }
+
+        Node node(Graph g) {
+            if (node == null) {
+                switch (kind) {
+                    case BLANK:
+                        // a new label: the graph may already have or later create this one
+                        node = g.addBlank(g.newBlankID());
+                        break;
+                    case LITERAL:
+                        node = g.addLiteral(label, datatype, lang);
+                        break;
+                    default:
+                        node = g.addResource(label);
+                }
+            }
+            return node;
+        }
+
+        Node property(Graph g) {
+            if (property == null) {
+                property = g.addProperty(label);
+            }
+            return property;
+        }
+
+        Node graph(Graph g) {
+            if (graph == null) {
+                graph = g.addGraph(label);
+            }
+            return graph;
+        }
+    }
+
+    /** Sequential reader of memory mapped windows of a snapshot */
+    static class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+        private long position = 0;
+        private MappedByteBuffer buffer;
+
+        Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+            map();
+        }
+
+        void map() throws IOException {
+            buffer =
+                    channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            position,
+                            Math.min(WINDOW, size - position));
+        }
+
+        /** Map the next window when the current one has less than n bytes left */
+        void ensure(int n) throws IOException {
+            if (buffer.remaining() < n) {
+                position += buffer.position();
+                if (size - position < n) {
+                    throw new IOException("Truncated snapshot");
+                }
+                map();
+            }
+        }
+
+        byte readByte() throws IOException {
+            ensure(1);
+            return buffer.get();
+        }
+
+        int readInt() throws IOException {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long readLong() throws IOException {
+            ensure(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            byte[] bytes = new byte[length];
+            ensure(length);
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Header header() throws IOException {
+            if (readInt() != MAGIC) {
+                throw new IOException("Not a graph snapshot");
+            }
+            int version = readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            boolean rdfs = readByte() != 0;
+            boolean named = readByte() != 0;
+            int nb = readInt();
+            List<Source> sources = new ArrayList<>(nb);
+            for (int i = 0; i < nb; i++) {
+                sources.add(new Source(readString(), readLong(), readLong()));
+            }
+            return new Header(rdfs, named, sources);
+        }
+
+        long quads(Graph graph) throws IOException {
+            List<Term> terms = new ArrayList<>();
+            long count = 0;
+            // same lock as the merge of a staging graph, queries wait for the quads
+            Lock lock = graph.getLock().writeLock();
+            lock.lock();
+            try {
+                for (byte kind = readByte(); kind != END; kind = readByte()) {
+                    switch (kind) {
+                        case IRI:
+                        case BLANK:
+                            terms.add(new Term(kind, readString(), null, null));
+                            break;
+                        case LITERAL:
+                            terms.add(new Term(kind, readString(), readString(), readString()));
+                            break;
+                        case QUAD:
+                            Node g = terms.get(readInt()).graph(graph);
+                            Node s = terms.get(readInt()).node(graph);
+                            Node p = terms.get(readInt()).property(graph);
+                            Node o = terms.get(readInt()).node(graph);
+                            graph.addEdge(g, s, p, o);
+                            count++;
+                            break;
+                        default:
+                            throw new IOException("Corrupted snapshot, record: " + kind);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (readLong() != count) {
+                throw new IOException("Corrupted snapshot, quads: " + count);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
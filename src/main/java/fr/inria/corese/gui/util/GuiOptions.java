@@ -0,0 +1,63 @@
+package fr.inria.corese.gui.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * GUI settings that have no Corese Property.Value counterpart. They are read from Java system
+ * properties prefixed with corese.gui., e.g. -Dcorese.gui.graph.budget=5000, with a default
+ * value when the property is absent or invalid.
+ */
+public final class GuiOptions {
+
+    private static final Logger logger = LogManager.getLogger(GuiOptions.class);
+
+    public static final String PREFIX = "corese.gui.";
+
+    private GuiOptions() {}
+
+    public static String stringValue(String key, String def) {
+        return System.getProperty(PREFIX + key, def);
+    }
+
+    public static int intValue(String key, int def) {
+        String value = System.getProperty(PREFIX + key);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException ex) {
+                logger.warn("Invalid integer for " + PREFIX + key + ": " + value);
+            }
+        }
+        return def;
+    }
+
+    public static long longValue(String key, long def) {
+        String value = System.getProperty(PREFIX + key);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException ex) {
+                logger.warn("Invalid integer for " + PREFIX + key + ": " + value);
+            }
+        }
+        return def;
+    }
+
+    public static double doubleValue(String key, double def) {
+        String value = System.getProperty(PREFIX + key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException ex) {
+                logger.warn("Invalid number for " + PREFIX + key + ": " + value);
+            }
+        }
+        return def;
+    }
+
+    public static boolean booleanValue(String key, boolean def) {
+        String value = System.getProperty(PREFIX + key);
+        return value == null ? def : Boolean.parseBoolean(value.trim());
+    }
+}
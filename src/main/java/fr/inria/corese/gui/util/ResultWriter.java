@@ -0,0 +1,327 @@
+package fr.inria.corese.gui.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.kgram.core.Mapping;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.kgram.core.Query;
+import fr.inria.corese.core.print.ResultFormat;
+import fr.inria.corese.core.sparql.api.IDatatype;
+import fr.inria.corese.core.sparql.datatype.RDF;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+import fr.inria.corese.gui.query.QueryExec;
+
+/**
+ * Write SELECT results to a stream row by row in the SPARQL CSV, TSV, JSON and XML formats or as
+ * a Markdown table. Results are either the Mappings held by the GUI or those of a query that is
+ * executed again without the max rows limit, which exports results larger than the GUI displays.
+ */
+public class ResultWriter {
+
+    static final int BUFFER = 1 << 16;
+
+    private final Writer out;
+    private final ResultFormat.format format;
+    private List<String> vars;
+    private long count = 0;
+
+    public ResultWriter(OutputStream stream, ResultFormat.format format) {
+        this.out =
+                new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER);
+        this.format = format;
+    }
+
+    /** Formats written row by row */
+    public static boolean accept(ResultFormat.format format) {
+        switch (format) {
+            case CSV_FORMAT:
+            case TSV_FORMAT:
+            case JSON_FORMAT:
+            case XML_FORMAT:
+            case MARKDOWN_FORMAT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Results that can be written row by row: SELECT, not ASK, CONSTRUCT or template */
+    public static boolean accept(Mappings map) {
+        Query q = map.getQuery();
+        return q != null
+                && map.getGraph() == null
+                && !q.isTemplate()
+                && !q.getAST().isAsk()
+                && !q.getAST().isUpdate();
+    }
+
+    /** Write the rows of map and flush, return the number of rows written */
+    public long write(Mappings map, TripleWriter.Progress progress) throws IOException {
+        List<Node> select = map.getSelect();
+        start(select);
+        for (Mapping m : map) {
+            if (!row(m, select, progress)) {
+                break;
+            }
+        }
+        end();
+        return count;
+    }
+
+    /**
+     * Execute the query once and write its rows. The whole export runs within timeout seconds (0
+     * for no timeout): past it, the query is stopped and a TimeoutException is thrown as the file
+     * would miss results.
+     */
+    public long write(QueryExec exec, String query, int timeout, TripleWriter.Progress progress)
+            throws IOException, EngineException, TimeoutException {
+        AtomicBoolean expired = new AtomicBoolean(false);
+        if (timeout > 0) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.SECONDS)
+                    .execute(
+                            () -> {
+                                expired.set(true);
+                                exec.finish();
+                            });
+        }
+        Mappings map = exec.SPARQLQuery(query);
+        if (expired.get()) {
+            throw new TimeoutException("timeout of " + timeout + " s");
+        }
+        return write(map, progress);
+    }
+
+    void start(List<Node> select) throws IOException {
+        vars = new ArrayList<>();
+        for (Node var : select) {
+            vars.add(var.getLabel().substring(1));
+        }
+        switch (format) {
+            case CSV_FORMAT:
+                line(",", vars);
+                break;
+            case TSV_FORMAT:
+                List<String> names = new ArrayList<>();
+                vars.forEach(name -> names.add("?" + name));
+                line("\t", names);
+                break;
+            case MARKDOWN_FORMAT:
+                out.write("| ");
+                out.write(String.join(" | ", vars));
+                out.write(" |\n|");
+                out.write("---|".repeat(vars.size()));
+                out.write('\n');
+                break;
+            case JSON_FORMAT:
+                out.write("{\n\"head\": { \"vars\": [");
+                for (int i = 0; i < vars.size(); i++) {
+                    out.write(i == 0 ? "\"" : ", \"");
+                    out.write(json(vars.get(i)));
+                    out.write('"');
+                }
+                out.write("] },\n\"results\": { \"bindings\": [\n");
+                break;
+            default:
+                out.write("<?xml version=\"1.0\"?>\n");
+                out.write("<sparql xmlns=\"http://www.w3.org/2005/sparql-results#\">\n<head>\n");
+                for (String name : vars) {
+                    out.write("<variable name=\"" + xml(name) + "\"/>\n");
+                }
+                out.write("</head>\n<results>\n");
+        }
+    }
+
+    boolean row(Mapping m, List<Node> select, TripleWriter.Progress progress)
+            throws IOException {
+        List<Node> values = new ArrayList<>(select.size());
+        for (Node var : select) {
+            values.add(m.getNode(var));
+        }
+        switch (format) {
+            case CSV_FORMAT:
+                csv(values);
+                break;
+            case TSV_FORMAT:
+            case MARKDOWN_FORMAT:
+                List<String> terms = new ArrayList<>();
+                for (Node node : values) {
+                    String term = node == null ? "" : TripleWriter.term(node);
+                    terms.add(format == ResultFormat.format.TSV_FORMAT ? term : markdown(term));
+                }
+                if (format == ResultFormat.format.TSV_FORMAT) {
+                    line("\t", terms);
+                } else {
+                    out.write("| ");
+                    out.write(String.join(" | ", terms));
+                    out.write(" |\n");
+                }
+                break;
+            case JSON_FORMAT:
+                json(values);
+                break;
+            default:
+                xml(values);
+        }
+        count++;
+        return count % TripleWriter.Progress.STEP != 0
+                || progress == null
+                || progress.written(count);
+    }
+
+    void end() throws IOException {
+        switch (format) {
+            case JSON_FORMAT:
+                out.write(count == 0 ? "] }\n}\n" : "\n] }\n}\n");
+                break;
+            case XML_FORMAT:
+                out.write("</results>\n</sparql>\n");
+                break;
+            default:
+        }
+        out.flush();
+    }
+
+    void line(String sep, List<String> cells) throws IOException {
+        out.write(String.join(sep, cells));
+        out.write("\r\n");
+    }
+
+    void csv(List<Node> values) throws IOException {
+        List<String> cells = new ArrayList<>(values.size());
+        for (Node node : values) {
+            String str = node == null ? "" : node.getDatatypeValue().getLabel();
+            if (str.indexOf(',') >= 0
+                    || str.indexOf('"') >= 0
+                    || str.indexOf('\n') >= 0
+                    || str.indexOf('\r') >= 0) {
+                str = "\"" + str.replace("\"", "\"\"") + "\"";
+            }
+            cells.add(str);
+        }
+        line(",", cells);
+    }
+
+    void json(List<Node> values) throws IOException {
+        out.write(count == 0 ? "{" : ",\n{");
+        boolean first = true;
+        for (int i = 0; i < vars.size(); i++) {
+            Node node = values.get(i);
+            if (node == null) {
+                continue;
+            }
+            IDatatype dt = node.getDatatypeValue();
+            out.write(first ? " \"" : ", \"");
+            first = false;
+            out.write(json(vars.get(i)));
+            out.write("\": { \"type\": \"");
+            if (dt.isBlank()) {
+                out.write("bnode\", \"value\": \"" + json(bnode(dt)) + "\"");
+            } else if (dt.isURI()) {
+                out.write("uri\", \"value\": \"" + json(dt.getLabel()) + "\"");
+            } else {
+                out.write("literal\", \"value\": \"" + json(dt.getLabel()) + "\"");
+                if (hasLang(dt)) {
+                    out.write(", \"xml:lang\": \"" + json(dt.getLang()) + "\"");
+                } else if (hasDatatype(dt)) {
+                    out.write(", \"datatype\": \"" + json(dt.getDatatypeURI()) + "\"");
+                }
+            }
+            out.write(" }");
+        }
+        out.write(" }");
+    }
+
+    void xml(List<Node> values) throws IOException {
+        out.write("<result>\n");
+        for (int i = 0; i < vars.size(); i++) {
+            Node node = values.get(i);
+            if (node == null) {
+                continue;
+            }
+            IDatatype dt = node.getDatatypeValue();
+            out.write("<binding name=\"" + xml(vars.get(i)) + "\">");
+            if (dt.isBlank()) {
+                out.write("<bnode>" + xml(bnode(dt)) + "</bnode>");
+            } else if (dt.isURI()) {
+                out.write("<uri>" + xml(dt.getLabel()) + "</uri>");
+            } else {
+                out.write("<literal");
+                if (hasLang(dt)) {
+                    out.write(" xml:lang=\"" + xml(dt.getLang()) + "\"");
+                } else if (hasDatatype(dt)) {
+                    out.write(" datatype=\"" + xml(dt.getDatatypeURI()) + "\"");
+                }
+                out.write(">" + xml(dt.getLabel()) + "</literal>");
+            }
+            out.write("</binding>\n");
+        }
+        out.write("</result>\n");
+    }
+
+    static boolean hasLang(IDatatype dt) {
+        return dt.getLang() != null && !dt.getLang().isEmpty();
+    }
+
+    static boolean hasDatatype(IDatatype dt) {
+        return dt.getDatatypeURI() != null && !RDF.xsdstring.equals(dt.getDatatypeURI());
+    }
+
+    static String bnode(IDatatype dt) {
+        String label = dt.getLabel();
+        return label.startsWith("_:") ? label.substring(2) : label;
+    }
+
+    static String markdown(String str) {
+        return str.replace("|", "\\|");
+    }
+
+    static String json(String str) {
+        StringBuilder sb = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.toString();
+    }
+
+    static String xml(String str) {
+        return str.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,858 @@
+package fr.inria.corese.gui.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.api.GraphListener;
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.kgram.core.Mapping;
+import fr.inria.corese.core.kgram.core.Mappings;
+import fr.inria.corese.core.kgram.core.Query;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.core.query.QueryProcess;
+import fr.inria.corese.core.shacl.Shacl;
+import fr.inria.corese.core.sparql.api.IDatatype;
+import fr.inria.corese.core.sparql.exceptions.EngineException;
+
+/**
+ * SHACL validation of a data graph with a cache of parsed shapes and incremental re-validation.
+ * The shapes graph of a SHACL document is parsed once and kept by content hash, with its
+ * evaluator for the data graph. A GraphListener records the nodes of the triples inserted or
+ * deleted since the last validation. An incremental validation evaluates the shapes on the touched
+ * nodes that are their focus nodes and patches the results of the last report.
+ *
+ * <p>Validation is complete when the data graph or the shapes changed, when a change was not
+ * notified (the size of the graph does not match), or when the result of a focus node may depend
+ * on other nodes: shapes with sh:node, sh:qualifiedValueShape, sh:sparql, sh:and, sh:or, sh:xone,
+ * sh:not, property shapes nested in property shapes or path sequences, sh:class when rdf:type or
+ * rdfs:subClassOf triples changed, and sh:targetClass when rdfs:subClassOf triples changed.
+ *
+ * <p>A complete validation may be parallel: the shapes, and chunks of the focus nodes of shapes
+ * with many focus nodes, are evaluated concurrently on a fork-join pool against the data graph,
+ * which is only read, and the partial reports are merged in shape order.
+ */
+public class ShaclValidator {
+
+    private static final Logger logger = LogManager.getLogger(ShaclValidator.class.getName());
+
+    public static final String SH = "http://www.w3.org/ns/shacl#";
+    static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    static final String SUBCLASS = "http://www.w3.org/2000/01/rdf-schema#subClassOf";
+    static final String RESULT = SH + "ValidationResult";
+    static final String PREFIX =
+            "prefix sh: <http://www.w3.org/ns/shacl#>\n"
+                    + "prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n";
+
+    static final String TARGETS =
+            PREFIX
+                    + "select ?s ?k ?t where {\n"
+                    + "{ ?s sh:targetClass ?t bind ('class' as ?k) }\n"
+                    + "union { ?s sh:targetNode ?t bind ('node' as ?k) }\n"
+                    + "union { ?s sh:targetSubjectsOf ?t bind ('subjects' as ?k) }\n"
+                    + "union { ?s sh:targetObjectsOf ?t bind ('objects' as ?k) }\n"
+                    + "union { ?s a rdfs:Class, ?type"
+                    + " values ?type { sh:NodeShape sh:PropertyShape }"
+                    + " bind (?s as ?t) bind ('class' as ?k) }\n"
+                    + "}";
+
+    // constraints whose result depends on nodes other than the focus node
+    static final String NON_LOCAL =
+            PREFIX
+                    + "select ?x where {\n"
+                    + "{ ?x sh:node|sh:qualifiedValueShape|sh:sparql ?y }\n"
+                    + "union { ?x sh:and|sh:or|sh:xone|sh:not ?y }\n"
+                    + "union { ?x sh:path ?p ; sh:property ?y }\n"
+                    + "union { ?x sh:path ?p filter isBlank(?p)"
+                    + " filter not exists { ?p sh:inversePath ?q filter isURI(?q) } }\n"
+                    + "} limit 1";
+
+    static final String CLASS = PREFIX + "select ?x where { ?x sh:class ?y } limit 1";
+
+    // SPARQL based targets are not partitioned
+    static final String CUSTOM = PREFIX + "select ?x where { ?x sh:target ?y } limit 1";
+
+    /** Default number of threads of the parallel validation */
+    public static final int THREADS =
+            GuiOptions.intValue("shacl.threads", Runtime.getRuntime().availableProcessors());
+
+    /** Report progress of the validation, return false to stop */
+    public interface Progress {
+        boolean done(int count, int total);
+    }
+
+    /** Target declarations of a shape */
+    static class Target {
+        final IDatatype shape;
+        // sh:targetNode term -> node
+        final Map<String, IDatatype> nodes = new LinkedHashMap<>();
+        final List<String> classes = new ArrayList<>();
+        final List<String> subjectsOf = new ArrayList<>();
+        final List<String> objectsOf = new ArrayList<>();
+
+        Target(IDatatype shape) {
+            this.shape = shape;
+        }
+    }
+
+    /** Shapes graph of a SHACL document parsed once */
+    static class Shapes {
+        final String hash;
+        final Graph graph;
+        final Collection<Target> targets;
+        final boolean local;
+        final boolean hasClass;
+        // sh:targetClass, its focus nodes change with rdfs:subClassOf
+        final boolean classTarget;
+        final boolean custom;
+        // evaluator of the shapes on the data graph, compiled on first use
+        private Graph data;
+        private Shacl shacl;
+
+        Shapes(String hash, Graph graph) throws EngineException {
+            this.hash = hash;
+            this.graph = graph;
+            this.targets = targets(graph);
+            QueryProcess exec = QueryProcess.create(graph);
+            this.local = exec.query(NON_LOCAL).size() == 0;
+            this.hasClass = exec.query(CLASS).size() > 0;
+            this.classTarget = targets.stream().anyMatch(t -> !t.classes.isEmpty());
+            this.custom = exec.query(CUSTOM).size() > 0;
+        }
+
+        Shacl shacl(Graph g) {
+            if (shacl == null || data != g) {
+                data = g;
+                shacl = new Shacl(g, graph);
+            }
+            return shacl;
+        }
+    }
+
+    /** Validation result, its terms are in Turtle except the message */
+    public static class Result {
+        private final String focus;
+        private final String shape;
+        private final String severity;
+        private final String path;
+        private final String value;
+        private final String message;
+        private final String component;
+
+        Result(
+                String focus,
+                String shape,
+                String severity,
+                String path,
+                String value,
+                String message,
+                String component) {
+            this.focus = focus;
+            // shared by the results of a shape
+            this.shape = intern(shape);
+            this.severity = intern(severity);
+            this.path = intern(path);
+            this.value = value;
+            this.message = message;
+            this.component = intern(component);
+        }
+
+        static String intern(String str) {
+            return str == null ? null : str.intern();
+        }
+
+        public String getFocus() {
+            return focus;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public String getSeverity() {
+            return severity;
+        }
+
+        /** Result path, null for a node shape */
+        public String getPath() {
+            return path;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public String getComponent() {
+            return component;
+        }
+
+        /** Result in Turtle */
+        public String toTurtle() {
+            StringBuilder sb = new StringBuilder("[ a sh:ValidationResult");
+            append(sb, "sh:focusNode", focus);
+            append(sb, "sh:resultSeverity", severity);
+            append(sb, "sh:sourceShape", shape);
+            append(sb, "sh:sourceConstraintComponent", component);
+            append(sb, "sh:resultPath", path);
+            append(sb, "sh:value", value);
+            if (message != null) {
+                sb.append(" ;\n      sh:resultMessage \"");
+                TripleWriter.escape(message, sb);
+                sb.append('"');
+            }
+            return sb.append(" ]").toString();
+        }
+
+        static void append(StringBuilder sb, String predicate, String term) {
+            if (term != null) {
+                sb.append(" ;\n      ").append(predicate).append(' ').append(term);
+            }
+        }
+    }
+
+    /** Last validation report, its results are indexed by focus node */
+    public static class Report {
+        // focus node term -> results
+        private final Map<String, List<Result>> results = new LinkedHashMap<>();
+        private boolean incremental = false;
+        private int evaluated = 0;
+
+        public boolean isConforms() {
+            return results.isEmpty();
+        }
+
+        /** Number of validation results */
+        public int size() {
+            int size = 0;
+            for (List<Result> list : results.values()) {
+                size += list.size();
+            }
+            return size;
+        }
+
+        /** Focus nodes that have a validation result */
+        public int getFocusCount() {
+            return results.size();
+        }
+
+        /** The report patches the previous one */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /** Number of (shape, focus node) evaluated by the incremental validation */
+        public int getEvaluated() {
+            return evaluated;
+        }
+
+        /** Validation results */
+        public List<Result> getResults() {
+            List<Result> list = new ArrayList<>(size());
+            results.values().forEach(list::addAll);
+            return list;
+        }
+
+        void add(Map<String, List<Result>> map) {
+            for (Map.Entry<String, List<Result>> entry : map.entrySet()) {
+                results.computeIfAbsent(entry.getKey(), k -> new ArrayList<>())
+                        .addAll(entry.getValue());
+            }
+        }
+
+        Report copy() {
+            Report report = new Report();
+            results.forEach((focus, list) -> report.results.put(focus, new ArrayList<>(list)));
+            return report;
+        }
+
+        /** Report in Turtle */
+        public String toTurtle() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("@prefix sh: <").append(SH).append("> .\n\n");
+            sb.append("[] a sh:ValidationReport ;\n    sh:conforms ").append(isConforms());
+            String sep = " ;\n    sh:result ";
+            for (Result result : getResults()) {
+                sb.append(sep).append(result.toTurtle());
+                sep = " ,\n    ";
+            }
+            return sb.append(" .\n").toString();
+        }
+    }
+
+    /** Nodes of the triples inserted or deleted since the last validation */
+    class Changes implements GraphListener {
+        // term -> node
+        private Map<String, IDatatype> touched = new HashMap<>();
+        private long inserted = 0;
+        private long deleted = 0;
+        private boolean types = false;
+        private boolean subClass = false;
+
+        synchronized void record(Edge edge, boolean insert) {
+            if (insert) {
+                inserted++;
+            } else {
+                deleted++;
+            }
+            // beyond the limit the validation is complete anyway
+            if (touched.size() <= max) {
+                touch(edge.getNode(0));
+                touch(edge.getNode(1));
+            }
+            String p = edge.getEdgeNode().getLabel();
+            types |= p.equals(RDF_TYPE);
+            subClass |= p.equals(SUBCLASS);
+        }
+
+        void touch(Node node) {
+            touched.putIfAbsent(TripleWriter.term(node), node.getDatatypeValue());
+        }
+
+        synchronized void reset() {
+            touched = new HashMap<>();
+            inserted = 0;
+            deleted = 0;
+            types = false;
+            subClass = false;
+        }
+
+        /** Touched nodes, changes are recorded again from now on */
+        synchronized Map<String, IDatatype> drain() {
+            Map<String, IDatatype> map = touched;
+            reset();
+            return map;
+        }
+
+        @Override
+        public void addSource(Graph g) {}
+
+        @Override
+        public boolean onInsert(Graph g, Edge edge) {
+            return true;
+        }
+
+        @Override
+        public void insert(Graph g, Edge edge) {
+            record(edge, true);
+        }
+
+        @Override
+        public void delete(Graph g, Edge edge) {
+            record(edge, false);
+        }
+
+        @Override
+        public void start(Graph g, Query q) {}
+
+        @Override
+        public void finish(Graph g, Query q, Mappings map) {}
+
+        @Override
+        public void load(String path) {}
+    }
+
+    private final Map<String, Shapes> cache;
+    private final int max = GuiOptions.intValue("shacl.incremental.max", 10_000);
+    // focus nodes of a parallel task
+    private final int chunk = GuiOptions.intValue("shacl.chunk", 1_000);
+    // threads of a complete validation, 0 for the sequential evaluation
+    private volatile int parallelism = GuiOptions.intValue("shacl.parallel", 0);
+    private final Changes changes = new Changes();
+    // held by a validation, clear() does not wait for it
+    private final ReentrantLock lock = new ReentrantLock();
+    // number of calls to clear(), and the number applied to the state below
+    private final AtomicInteger cleared = new AtomicInteger();
+    private int forgotten = 0;
+    // graph whose changes are recorded
+    private Graph listened;
+    // state of the last validation
+    private Graph data;
+    private Shapes shapes;
+    private Report report;
+    private long size;
+
+    public ShaclValidator() {
+        int capacity = GuiOptions.intValue("shacl.cache", 8);
+        cache =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Shapes> eldest) {
+                        return size() > capacity;
+                    }
+                };
+    }
+
+    /**
+     * Validate the data graph with the SHACL document in Turtle. When incremental is true and the
+     * last validation used the same graph and document, only the touched focus nodes are
+     * evaluated. Return null when progress stops the validation.
+     */
+    public Report validate(Graph graph, String document, boolean incremental, Progress progress)
+            throws LoadException, EngineException {
+        lock.lock();
+        try {
+            return doValidate(graph, document, incremental, progress);
+        } finally {
+            lock.unlock();
+            // release the graph when clear() was called meanwhile
+            release();
+        }
+    }
+
+    Report doValidate(Graph graph, String document, boolean incremental, Progress progress)
+            throws LoadException, EngineException {
+        forget();
+        int count = forgotten;
+        Shapes sh = shapes(document);
+        Report result = null;
+        if (incremental) {
+            String reason = fullReason(graph, sh);
+            if (reason == null) {
+                result = patch(graph, sh, progress);
+                if (result == null) {
+                    return null;
+                }
+            } else {
+                logger.info("Complete SHACL validation: " + reason);
+            }
+        }
+        if (result == null) {
+            // changes are recorded from now on, the report is computed from this state
+            listen(graph);
+            // the last report misses these changes, if the validation is stopped the next one is
+            // complete
+            report = null;
+            if (parallelism > 0 && !sh.custom) {
+                result = parallel(graph, sh, progress);
+                if (result == null) {
+                    return null;
+                }
+            } else {
+                Graph res = sh.shacl(graph).eval();
+                if (!progress.done(1, 1)) {
+                    return null;
+                }
+                result = new Report();
+                result.add(results(res));
+            }
+        }
+        if (cleared.get() != count) {
+            // the graph was released meanwhile, the next validation is complete
+            return result;
+        }
+        data = graph;
+        shapes = sh;
+        report = result;
+        size = graph.size();
+        return result;
+    }
+
+    /** Why the validation must be complete, null when it can be incremental */
+    String fullReason(Graph graph, Shapes sh) {
+        if (report == null || data != graph) {
+            return "new data graph";
+        }
+        if (shapes != sh) {
+            return "new shapes";
+        }
+        if (!sh.local) {
+            return "shapes reach beyond their focus nodes";
+        }
+        synchronized (changes) {
+            if (graph.size() != size + changes.inserted - changes.deleted) {
+                return "changes were not notified";
+            }
+            if (changes.touched.size() > max) {
+                return "more than " + max + " touched nodes";
+            }
+            if ((changes.types || changes.subClass) && sh.hasClass) {
+                return "sh:class and rdf:type or rdfs:subClassOf changed";
+            }
+            if (changes.subClass && sh.classTarget) {
+                return "sh:targetClass and rdfs:subClassOf changed";
+            }
+        }
+        return null;
+    }
+
+    /** Evaluate the shapes on the touched focus nodes and patch the last report */
+    Report patch(Graph graph, Shapes sh, Progress progress) throws EngineException {
+        Map<String, IDatatype> touched = changes.drain();
+        Report result = report.copy();
+        result.incremental = true;
+        touched.keySet().forEach(result.results::remove);
+        List<Target> shapeList = new ArrayList<>();
+        List<IDatatype> nodeList = new ArrayList<>();
+        for (Target target : sh.targets) {
+            for (IDatatype node : focus(graph, target, touched)) {
+                shapeList.add(target.shape);
+                nodeList.add(node);
+            }
+        }
+        Shacl shacl = sh.shacl(graph);
+        for (int i = 0; i < shapeList.size(); i++) {
+            result.add(results(shacl.shape(shapeList.get(i).shape, nodeList.get(i))));
+            result.evaluated++;
+            if (!progress.done(i + 1, shapeList.size())) {
+                // the touched nodes are validated again by next validation
+                report = null;
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate the shapes concurrently, a shape with more than chunk focus nodes is split in
+     * chunks of focus nodes. Return null when progress stops the validation.
+     */
+    Report parallel(Graph graph, Shapes sh, Progress progress) throws EngineException {
+        // Shacl keeps the state of an evaluation, each thread has its own evaluator
+        ThreadLocal<Shacl> local = ThreadLocal.withInitial(() -> new Shacl(graph, sh.graph));
+        AtomicBoolean stop = new AtomicBoolean(false);
+        List<Callable<Map<String, List<Result>>>> tasks = new ArrayList<>();
+        // the focus queries also index the graph before it is read concurrently
+        for (Target target : sh.targets) {
+            List<IDatatype> nodes = focus(graph, target, null);
+            if (nodes.size() <= chunk) {
+                tasks.add(
+                        () -> stop.get() ? Map.of() : results(local.get().shape(target.shape)));
+                continue;
+            }
+            for (int i = 0; i < nodes.size(); i += chunk) {
+                List<IDatatype> part = nodes.subList(i, Math.min(nodes.size(), i + chunk));
+                tasks.add(
+                        () -> {
+                            Report partial = new Report();
+                            for (IDatatype node : part) {
+                                if (stop.get()) {
+                                    break;
+                                }
+                                partial.add(results(local.get().shape(target.shape, node)));
+                            }
+                            return partial.results;
+                        });
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<Map<String, List<Result>>>> futures = new ArrayList<>();
+            for (Callable<Map<String, List<Result>>> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            Report result = new Report();
+            for (int i = 0; i < futures.size(); i++) {
+                result.add(futures.get(i).get());
+                if (!progress.done(i + 1, futures.size())) {
+                    stop.set(true);
+                    return null;
+                }
+            }
+            return result;
+        } catch (InterruptedException ex) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            stop.set(true);
+            if (ex.getCause() instanceof EngineException) {
+                throw (EngineException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Touched nodes that are focus nodes of the target, all its focus nodes when null */
+    static List<IDatatype> focus(Graph graph, Target target, Map<String, IDatatype> touched)
+            throws EngineException {
+        List<IDatatype> list = new ArrayList<>();
+        if (touched != null && touched.isEmpty()) {
+            return list;
+        }
+        Set<String> found = new HashSet<>();
+        for (Map.Entry<String, IDatatype> entry : target.nodes.entrySet()) {
+            if ((touched == null || touched.containsKey(entry.getKey()))
+                    && found.add(entry.getKey())) {
+                list.add(entry.getValue());
+            }
+        }
+        List<String> branches = new ArrayList<>();
+        if (!target.classes.isEmpty()) {
+            branches.add(
+                    String.format(
+                            "{ values ?c { %s } ?n rdf:type/rdfs:subClassOf* ?c }",
+                            String.join(" ", target.classes)));
+        }
+        if (!target.subjectsOf.isEmpty()) {
+            branches.add(
+                    String.format(
+                            "{ values ?p { %s } ?n ?p ?x }", String.join(" ", target.subjectsOf)));
+        }
+        if (!target.objectsOf.isEmpty()) {
+            branches.add(
+                    String.format(
+                            "{ values ?p { %s } ?x ?p ?n }", String.join(" ", target.objectsOf)));
+        }
+        if (branches.isEmpty()) {
+            return list;
+        }
+        // blank nodes cannot be bound in the query, all focus nodes are enumerated then
+        StringBuilder values = null;
+        if (touched != null) {
+            values = new StringBuilder();
+            for (Map.Entry<String, IDatatype> entry : touched.entrySet()) {
+                if (entry.getValue().isBlank()) {
+                    values = null;
+                    break;
+                }
+                values.append(entry.getKey()).append(' ');
+            }
+        }
+        String query =
+                PREFIX
+                        + "select distinct ?n where {\n"
+                        + (values == null ? "" : "values ?n { " + values + "}\n")
+                        + String.join("\nunion ", branches)
+                        + "\n}";
+        for (Mapping m : QueryProcess.create(graph).query(query)) {
+            Node node = m.getNode("?n");
+            String term = TripleWriter.term(node);
+            if ((touched == null || touched.containsKey(term)) && found.add(term)) {
+                list.add(node.getDatatypeValue());
+            }
+        }
+        return list;
+    }
+
+    void listen(Graph graph) {
+        if (listened != graph) {
+            if (listened != null) {
+                listened.removeListener(changes);
+            }
+            graph.addListener(changes);
+            listened = graph;
+        }
+        changes.reset();
+    }
+
+    /** Threads of a complete validation, 0 for the sequential evaluation */
+    public void setParallelism(int n) {
+        parallelism = n;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Forget the last report, next validation is complete. It does not wait for a running
+     * validation: the validation forgets its state when it is done.
+     */
+    public void clear() {
+        cleared.incrementAndGet();
+        release();
+    }
+
+    /** Forget the state unless a validation holds the lock, it does it when it is done */
+    void release() {
+        if (lock.tryLock()) {
+            try {
+                forget();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Forget the state of the last validation if clear() was called since, with the lock */
+    void forget() {
+        int count = cleared.get();
+        if (count == forgotten) {
+            return;
+        }
+        forgotten = count;
+        if (listened != null) {
+            listened.removeListener(changes);
+            listened = null;
+        }
+        data = null;
+        shapes = null;
+        report = null;
+        changes.reset();
+    }
+
+    /** Parsed shapes of the document, from the cache when it was parsed before */
+    Shapes shapes(String document) throws LoadException, EngineException {
+        String hash = hash(document);
+        Shapes sh = cache.get(hash);
+        if (sh == null) {
+            Graph graph = Graph.create();
+            Load.create(graph).loadString(document, Load.format.TURTLE_FORMAT);
+            sh = new Shapes(hash, graph);
+            cache.put(hash, sh);
+        }
+        return sh;
+    }
+
+    static Collection<Target> targets(Graph graph) throws EngineException {
+        Map<String, Target> map = new LinkedHashMap<>();
+        for (Mapping m : QueryProcess.create(graph).query(TARGETS)) {
+            Node shape = m.getNode("?s");
+            Node value = m.getNode("?t");
+            String kind = m.getNode("?k").getLabel();
+            Target target =
+                    map.computeIfAbsent(
+                            TripleWriter.term(shape), k -> new Target(shape.getDatatypeValue()));
+            String term = TripleWriter.term(value);
+            switch (kind) {
+                case "class":
+                    target.classes.add(term);
+                    break;
+                case "node":
+                    target.nodes.put(term, value.getDatatypeValue());
+                    break;
+                case "subjects":
+                    target.subjectsOf.add(term);
+                    break;
+                default:
+                    target.objectsOf.add(term);
+            }
+        }
+        return map.values();
+    }
+
+    /** Validation results of a report graph, by focus node */
+    static Map<String, List<Result>> results(Graph report) {
+        // subject term -> (predicate, object)
+        Map<String, List<Node[]>> triples = new HashMap<>();
+        List<String> subjects = new ArrayList<>();
+        for (Edge ent : report.getEdges()) {
+            Edge edge = ent.getEdge();
+            String subject = TripleWriter.term(edge.getNode(0));
+            triples.computeIfAbsent(subject, k -> new ArrayList<>())
+                    .add(new Node[] {edge.getEdgeNode(), edge.getNode(1)});
+            if (edge.getEdgeNode().getLabel().equals(RDF_TYPE)
+                    && edge.getNode(1).getLabel().equals(RESULT)) {
+                subjects.add(subject);
+            }
+        }
+        Map<String, List<Result>> map = new LinkedHashMap<>();
+        for (String subject : subjects) {
+            // SHACL property -> first value
+            Map<String, Node> values = new HashMap<>();
+            for (Node[] po : triples.get(subject)) {
+                values.putIfAbsent(po[0].getLabel(), po[1]);
+            }
+            Node message = values.get(SH + "resultMessage");
+            Result result =
+                    new Result(
+                            term(values.get(SH + "focusNode"), triples),
+                            term(values.get(SH + "sourceShape"), triples),
+                            term(values.get(SH + "resultSeverity"), triples),
+                            term(values.get(SH + "resultPath"), triples),
+                            term(values.get(SH + "value"), triples),
+                            message == null ? null : message.getLabel(),
+                            term(values.get(SH + "sourceConstraintComponent"), triples));
+            // same key as the touched nodes
+            Node node = values.get(SH + "focusNode");
+            String focus = node == null ? "" : TripleWriter.term(node);
+            map.computeIfAbsent(focus, k -> new ArrayList<>()).add(result);
+        }
+        return map;
+    }
+
+    /** Term in Turtle on one line, blank nodes of the report are described */
+    static String term(Node node, Map<String, List<Node[]>> triples) {
+        if (node == null) {
+            return null;
+        }
+        IDatatype dt = node.getDatatypeValue();
+        String term = TripleWriter.term(node);
+        if (dt.isBlank() && triples.containsKey(term)) {
+            StringBuilder sb = new StringBuilder();
+            describe(term, triples, sb, new HashSet<>(), "");
+            return sb.toString().replaceAll("\\s*\\n\\s*", " ");
+        } else if (dt.isURI()) {
+            return name(dt.getLabel());
+        }
+        return term;
+    }
+
+    /** Blank node description [ p o ; ... ] with nested blank nodes */
+    static void describe(
+            String subject,
+            Map<String, List<Node[]>> triples,
+            StringBuilder sb,
+            Set<String> visited,
+            String indent) {
+        visited.add(subject);
+        sb.append("[");
+        String sep = " ";
+        for (Node[] po : triples.getOrDefault(subject, List.of())) {
+            sb.append(sep);
+            sep = " ;\n" + indent + "  ";
+            String p = po[0].getLabel();
+            sb.append(p.equals(RDF_TYPE) ? "a" : name(p));
+            sb.append(' ');
+            String object = TripleWriter.term(po[1]);
+            if (po[1].getDatatypeValue().isBlank()
+                    && triples.containsKey(object)
+                    && !visited.contains(object)) {
+                describe(object, triples, sb, visited, indent + "  ");
+            } else if (po[1].getDatatypeValue().isURI()) {
+                sb.append(name(po[1].getLabel()));
+            } else {
+                sb.append(object);
+            }
+        }
+        sb.append(" ]");
+    }
+
+    /** sh:name for SHACL terms, IRI otherwise */
+    static String name(String iri) {
+        if (iri.startsWith(SH) && iri.substring(SH.length()).matches("[A-Za-z]+")) {
+            return "sh:" + iri.substring(SH.length());
+        }
+        return TripleWriter.iri(iri);
+    }
+
+    static String hash(String document) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest(document.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
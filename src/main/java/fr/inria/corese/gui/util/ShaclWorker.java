@@ -0,0 +1,122 @@
+package fr.inria.corese.gui.util;
+
+import java.awt.Component;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.LoadException;
+import fr.inria.corese.gui.util.ShaclValidator.Report;
+
+/**
+ * SHACL validation outside the Event Dispatch Thread with a progress monitor. An incremental
+ * validation reports the (shape, focus node) evaluated, a complete validation is a single step:
+ * cancel interrupts it and its result is ignored. The report is sent to the report consumer and
+ * a summary, or the error, to the display consumer.
+ */
+public class ShaclWorker extends SwingWorker<Report, Integer> {
+
+    private static final Logger logger = LogManager.getLogger(ShaclWorker.class.getName());
+    static final int POLL = 200;
+
+    private final ShaclValidator validator;
+    private final Graph graph;
+    private final String document;
+    private final boolean incremental;
+    private final Consumer<String> display;
+    private final Consumer<Report> report;
+    private final ProgressMonitor monitor;
+    // the monitor is polled as a complete validation does not report progress
+    private final Timer timer;
+    private long time;
+
+    public ShaclWorker(
+            Component parent,
+            ShaclValidator validator,
+            Graph graph,
+            String document,
+            boolean incremental,
+            Consumer<String> display,
+            Consumer<Report> report) {
+        this.validator = validator;
+        this.graph = graph;
+        this.document = document;
+        this.incremental = incremental;
+        this.display = display;
+        this.report = report;
+        this.monitor = new ProgressMonitor(parent, "SHACL validation", "Validating…", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        this.timer =
+                new Timer(
+                        POLL,
+                        e -> {
+                            if (monitor.isCanceled()) {
+                                cancel(true);
+                            }
+                        });
+        timer.start();
+    }
+
+    @Override
+    protected Report doInBackground() throws Exception {
+        time = System.currentTimeMillis();
+        return validator.validate(graph, document, incremental, this::progress);
+    }
+
+    boolean progress(int count, int total) {
+        publish(total == 0 ? 100 : count * 100 / total);
+        return !isCancelled();
+    }
+
+    @Override
+    protected void process(List<Integer> chunks) {
+        monitor.setProgress(Math.min(99, chunks.get(chunks.size() - 1)));
+    }
+
+    @Override
+    protected void done() {
+        timer.stop();
+        monitor.close();
+        try {
+            Report result = get();
+            if (result == null) {
+                display.accept("Validation cancelled.");
+                return;
+            }
+            String summary =
+                    String.format(
+                            "SHACL %s validation: %,d result(s) in %.3f s%s",
+                            result.isIncremental() ? "incremental" : "complete",
+                            result.size(),
+                            (System.currentTimeMillis() - time) / 1000.0,
+                            result.isIncremental()
+                                    ? String.format(
+                                            ", %,d focus node(s) evaluated",
+                                            result.getEvaluated())
+                                    : "");
+            logger.info(summary);
+            display.accept(summary + (result.isConforms() ? "\nData conforms." : ""));
+            report.accept(result);
+        } catch (CancellationException ex) {
+            display.accept("Validation cancelled.");
+        } catch (ExecutionException ex) {
+            logger.error("SHACL validation", ex.getCause());
+            if (ex.getCause() instanceof LoadException) {
+                display.accept("Error : malformed SHACL document.");
+            } else {
+                display.accept("Error : engine exception.\n" + ex.getCause());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
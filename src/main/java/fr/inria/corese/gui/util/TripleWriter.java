@@ -0,0 +1,206 @@
+package fr.inria.corese.gui.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.kgram.api.core.Edge;
+import fr.inria.corese.core.kgram.api.core.ExpType;
+import fr.inria.corese.core.kgram.api.core.Node;
+import fr.inria.corese.core.print.ResultFormat;
+import fr.inria.corese.core.sparql.api.IDatatype;
+import fr.inria.corese.core.sparql.datatype.RDF;
+
+/**
+ * Write the triples of a graph to a stream one by one, without building the serialization in
+ * memory. N-Triples and N-Quads write one statement per line, Turtle groups consecutive triples
+ * with the same subject (;) and the same predicate (,) and writes full IRIs. Named graphs other
+ * than the default graph are written in N-Quads only.
+ */
+public class TripleWriter {
+
+    public enum Syntax {
+        NTRIPLES,
+        NQUADS,
+        TURTLE
+    }
+
+    static final int BUFFER = 1 << 16;
+    static final String RDF_TYPE = "<" + RDF.RDF + "type>";
+
+    /** Called every STEP triples with the number of triples written, return false to stop */
+    public interface Progress {
+        int STEP = 10_000;
+
+        boolean written(long count);
+    }
+
+    private final Writer out;
+    private final Syntax syntax;
+    private String subject;
+    private String predicate;
+    private long count = 0;
+
+    public TripleWriter(OutputStream stream, Syntax syntax) {
+        this.out =
+                new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER);
+        this.syntax = syntax;
+    }
+
+    /** Streaming syntax for a ResultFormat format, null if it has none */
+    public static Syntax syntax(ResultFormat.format format) {
+        switch (format) {
+            case NTRIPLES_FORMAT:
+                return Syntax.NTRIPLES;
+            case NQUADS_FORMAT:
+                return Syntax.NQUADS;
+            case TURTLE_FORMAT:
+                return Syntax.TURTLE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Write the triples of the graph and flush, the stream is not closed. Return the number of
+     * triples written, which is less than the graph size when progress stops the export.
+     */
+    public long write(Graph graph, Progress progress) throws IOException {
+        for (Edge ent : graph.getEdges()) {
+            write(ent.getEdge());
+            if (count % Progress.STEP == 0 && progress != null && !progress.written(count)) {
+                break;
+            }
+        }
+        if (subject != null) {
+            out.write(" .\n");
+        }
+        out.flush();
+        return count;
+    }
+
+    void write(Edge edge) throws IOException {
+        String s = term(edge.getNode(0));
+        String p = term(edge.getEdgeNode());
+        String o = term(edge.getNode(1));
+        switch (syntax) {
+            case TURTLE:
+                turtle(s, p, o);
+                break;
+            case NQUADS:
+                Node g = edge.getGraph();
+                if (g != null && !ExpType.DEFAULT_GRAPH.equals(g.getLabel())) {
+                    statement(s, p, o, term(g));
+                    break;
+                }
+            // fall through, triple of the default graph
+            default:
+                statement(s, p, o, null);
+        }
+        count++;
+    }
+
+    void statement(String s, String p, String o, String g) throws IOException {
+        out.write(s);
+        out.write(' ');
+        out.write(p);
+        out.write(' ');
+        out.write(o);
+        if (g != null) {
+            out.write(' ');
+            out.write(g);
+        }
+        out.write(" .\n");
+    }
+
+    void turtle(String s, String p, String o) throws IOException {
+        if (s.equals(subject)) {
+            if (p.equals(predicate)) {
+                out.write(" ,\n        ");
+            } else {
+                out.write(" ;\n    ");
+                out.write(verb(p));
+                out.write(' ');
+            }
+        } else {
+            if (subject != null) {
+                out.write(" .\n");
+            }
+            out.write(s);
+            out.write(' ');
+            out.write(verb(p));
+            out.write(' ');
+        }
+        out.write(o);
+        subject = s;
+        predicate = p;
+    }
+
+    static String verb(String p) {
+        return p.equals(RDF_TYPE) ? "a" : p;
+    }
+
+    /** N-Triples term of a node, also a key that tells literals apart by datatype and language */
+    public static String term(Node node) {
+        IDatatype dt = node.getDatatypeValue();
+        if (dt.isBlank()) {
+            return dt.getLabel();
+        } else if (dt.isURI()) {
+            return iri(dt.getLabel());
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append('"');
+        escape(dt.getLabel(), sb);
+        sb.append('"');
+        String lang = dt.getLang();
+        if (lang != null && !lang.isEmpty()) {
+            sb.append('@').append(lang);
+        } else if (dt.getDatatypeURI() != null && !RDF.xsdstring.equals(dt.getDatatypeURI())) {
+            sb.append("^^").append(iri(dt.getDatatypeURI()));
+        }
+        return sb.toString();
+    }
+
+    static String iri(String iri) {
+        StringBuilder sb = new StringBuilder(iri.length() + 2);
+        sb.append('<');
+        for (int i = 0; i < iri.length(); i++) {
+            char c = iri.charAt(i);
+            if (c <= ' ' || "<>\"{}|^`\\".indexOf(c) >= 0) {
+                sb.append(String.format("\\u%04X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('>').toString();
+    }
+
+    static void escape(String str, StringBuilder sb) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
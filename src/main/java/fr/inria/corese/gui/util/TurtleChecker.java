@@ -0,0 +1,390 @@
+package fr.inria.corese.gui.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fr.inria.corese.core.Graph;
+import fr.inria.corese.core.load.Load;
+import fr.inria.corese.core.load.LoadException;
+
+/**
+ * Turtle syntax check that reports all the errors of a document and not only the first one. The
+ * document is split into statements (directives and triples ended by a dot) by a lexical scan,
+ * statements are parsed by chunks preceded by the prefix and base declarations read so far, and
+ * parsing resumes after the statement of an error. The result of each statement is cached with
+ * its prologue, so that checking an edited document parses only the edited statements.
+ */
+public class TurtleChecker {
+
+    static final int CHUNK = GuiOptions.intValue("turtle.chunk", 256);
+    // position of javacc parse and lexical errors
+    static final Pattern POSITION = Pattern.compile("line (\\d+), column (\\d+)");
+    static final Pattern AT_POSITION = Pattern.compile("\\s*(at )?line \\d+, column \\d+\\.?");
+
+    /** Syntax error, line and column start at 1 */
+    public static class Diagnostic {
+        private final int line;
+        private final int column;
+        private final String message;
+
+        Diagnostic(int line, int column, String message) {
+            this.line = line;
+            this.column = column;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /** Position relative to the statement, for the cache */
+        Diagnostic relative(Statement st) {
+            return line == st.line
+                    ? new Diagnostic(0, column - st.column, message)
+                    : new Diagnostic(line - st.line, column, message);
+        }
+
+        /** Position in the document of a relative diagnostic of the statement */
+        Diagnostic absolute(Statement st) {
+            return line == 0
+                    ? new Diagnostic(st.line, st.column + column, message)
+                    : new Diagnostic(st.line + line, column, message);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Line %d, column %d: %s", line, column, message);
+        }
+    }
+
+    /** Statement of the document, [start, end[ with line and column of start */
+    static class Statement {
+        final int start;
+        final int end;
+        final int line;
+        final int column;
+        final boolean directive;
+
+        Statement(int start, int end, int line, int column, boolean directive) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+            this.column = column;
+            this.directive = directive;
+        }
+    }
+
+    // cached result of a statement without error
+    static final Diagnostic VALID = new Diagnostic(0, 0, "");
+
+    // (prologue, statement) -> relative diagnostic or VALID, of the last check
+    private Map<List<String>, Diagnostic> cache = new HashMap<>();
+
+    /**
+     * Check the document, send diagnostics in document order as they are found. Stop when cancel
+     * returns true. Return the number of errors.
+     */
+    public synchronized int check(
+            String document, Consumer<Diagnostic> diagnostics, BooleanSupplier cancel) {
+        List<Statement> statements = split(document);
+        Map<List<String>, Diagnostic> checked = new HashMap<>();
+        String prologue = "";
+        int errors = 0;
+        int i = 0;
+        while (i < statements.size() && !cancel.getAsBoolean()) {
+            Statement st = statements.get(i);
+            List<String> key = List.of(prologue, document.substring(st.start, st.end));
+            Diagnostic known = cache.get(key);
+            if (known == null) {
+                // parse up to the next cached statement, a directive is parsed alone
+                List<List<String>> keys = new ArrayList<>();
+                keys.add(key);
+                int j = i + 1;
+                while (!st.directive
+                        && j < statements.size()
+                        && j - i < CHUNK
+                        && !statements.get(j).directive) {
+                    Statement next = statements.get(j);
+                    List<String> nextKey =
+                            List.of(prologue, document.substring(next.start, next.end));
+                    if (cache.containsKey(nextKey)) {
+                        break;
+                    }
+                    keys.add(nextKey);
+                    j++;
+                }
+                Diagnostic error = parse(document, prologue, statements, i, j);
+                int k =
+                        error == null
+                                ? j
+                                : find(statements, i, j, error.getLine(), error.getColumn());
+                for (int n = i; n < k; n++) {
+                    checked.put(keys.get(n - i), VALID);
+                }
+                if (error != null) {
+                    checked.put(keys.get(k - i), error.relative(statements.get(k)));
+                    diagnostics.accept(error);
+                    errors++;
+                    // resume after the statement of the error
+                    k++;
+                }
+                if (st.directive && error == null) {
+                    prologue = prologue + key.get(1) + "\n";
+                }
+                i = k;
+            } else {
+                checked.put(key, known);
+                if (known != VALID) {
+                    diagnostics.accept(known.absolute(st));
+                    errors++;
+                } else if (st.directive) {
+                    prologue = prologue + key.get(1) + "\n";
+                }
+                i++;
+            }
+        }
+        if (i < statements.size()) {
+            // cancelled: keep the previous results too
+            cache.putAll(checked);
+        } else {
+            cache = checked;
+        }
+        return errors;
+    }
+
+    /**
+     * Parse statements [from, to[ after the prologue, return the first error with its position
+     * in the document, or null.
+     */
+    Diagnostic parse(
+            String document, String prologue, List<Statement> statements, int from, int to) {
+        Statement first = statements.get(from);
+        Statement last = statements.get(to - 1);
+        int lines = count(prologue);
+        StringBuilder sb = new StringBuilder(prologue.length() + last.end - first.start + 80);
+        sb.append(prologue);
+        // the first statement keeps its column
+        sb.append(" ".repeat(first.column - 1));
+        sb.append(document, first.start, last.end);
+        try {
+            Load.create(Graph.create()).loadString(sb.toString(), Load.format.TURTLE_FORMAT);
+            return null;
+        } catch (LoadException | RuntimeException ex) {
+            String message = message(ex);
+            Matcher m = POSITION.matcher(message);
+            if (m.find()) {
+                int line = Integer.parseInt(m.group(1)) - lines;
+                if (line >= 1) {
+                    // the position is given by the diagnostic, not by the message
+                    return new Diagnostic(
+                            first.line + line - 1,
+                            Integer.parseInt(m.group(2)),
+                            AT_POSITION.matcher(message).replaceFirst(""));
+                }
+            }
+            if (to - from > 1) {
+                // no position: locate the error statement by statement
+                for (int i = from; i < to; i++) {
+                    Diagnostic error = parse(document, prologue, statements, i, i + 1);
+                    if (error != null) {
+                        return error;
+                    }
+                }
+            }
+            return new Diagnostic(first.line, first.column, message);
+        }
+    }
+
+    static String message(Exception ex) {
+        Throwable cause = ex;
+        while (cause.getMessage() == null && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() == null
+                ? cause.getClass().getSimpleName()
+                : cause.getMessage().strip();
+    }
+
+    /** Index of the statement of [from, to[ that contains the position */
+    static int find(List<Statement> statements, int from, int to, int line, int column) {
+        int index = from;
+        for (int i = from; i < to; i++) {
+            Statement st = statements.get(i);
+            if (st.line < line || (st.line == line && st.column <= column)) {
+                index = i;
+            } else {
+                break;
+            }
+        }
+        return index;
+    }
+
+    static int count(CharSequence text) {
+        int n = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Split the document into statements. IRIs, strings, comments and nested brackets are
+     * skipped, a statement ends with a dot followed by a space, a comment or the end of the
+     * document, a SPARQL style PREFIX or BASE ends with its IRI.
+     */
+    static List<Statement> split(String text) {
+        List<Statement> list = new ArrayList<>();
+        int n = text.length();
+        int line = 1;
+        int lineStart = 0;
+        int i = 0;
+        while (i < n) {
+            // skip spaces and comments between statements
+            char c = text.charAt(i);
+            if (c == '\n') {
+                line++;
+                lineStart = ++i;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '#') {
+                while (i < n && text.charAt(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            int start = i;
+            int startLine = line;
+            int column = start - lineStart + 1;
+            boolean sparql = keyword(text, i, "PREFIX") || keyword(text, i, "BASE");
+            boolean directive = c == '@' || sparql;
+            int depth = 0;
+            boolean end = false;
+            while (i < n && !end) {
+                c = text.charAt(i);
+                switch (c) {
+                    case '\n':
+                        line++;
+                        lineStart = ++i;
+                        break;
+                    case '#':
+                        while (i < n && text.charAt(i) != '\n') {
+                            i++;
+                        }
+                        break;
+                    case '<':
+                        // IRI, or less than in a SPARQL like text
+                        int close = iri(text, i);
+                        i = close < 0 ? i + 1 : close + 1;
+                        end = sparql && close >= 0;
+                        break;
+                    case '"':
+                    case '\'':
+                        int[] pos = string(text, i, line, lineStart);
+                        i = pos[0];
+                        line = pos[1];
+                        lineStart = pos[2];
+                        break;
+                    case '[':
+                    case '(':
+                    case '{':
+                        depth++;
+                        i++;
+                        break;
+                    case ']':
+                    case ')':
+                    case '}':
+                        depth = Math.max(0, depth - 1);
+                        i++;
+                        break;
+                    case '.':
+                        i++;
+                        end =
+                                depth == 0
+                                        && (i == n
+                                                || Character.isWhitespace(text.charAt(i))
+                                                || text.charAt(i) == '#');
+                        break;
+                    default:
+                        i++;
+                }
+            }
+            list.add(new Statement(start, i, startLine, column, directive));
+        }
+        return list;
+    }
+
+    static boolean keyword(String text, int i, String keyword) {
+        int end = i + keyword.length();
+        return end < text.length()
+                && text.regionMatches(true, i, keyword, 0, keyword.length())
+                && Character.isWhitespace(text.charAt(end));
+    }
+
+    /** Index of the > of the IRI at i, -1 when it is not an IRI */
+    static int iri(String text, int i) {
+        for (int j = i + 1; j < text.length(); j++) {
+            char c = text.charAt(j);
+            if (c == '>') {
+                return j;
+            }
+            if (Character.isWhitespace(c) || c == '<' || c == '"') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /** End of the string at i with the line and line start after it */
+    static int[] string(String text, int i, int line, int lineStart) {
+        int n = text.length();
+        char quote = text.charAt(i);
+        boolean longString =
+                i + 2 < n && text.charAt(i + 1) == quote && text.charAt(i + 2) == quote;
+        i += longString ? 3 : 1;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < n && text.charAt(i + 1) != '\n') {
+                i += 2;
+                continue;
+            }
+            if (c == '\n') {
+                if (!longString) {
+                    // unterminated short string: end it at the line break
+                    return new int[] {i, line, lineStart};
+                }
+                line++;
+                lineStart = i + 1;
+            }
+            if (c == quote) {
+                if (!longString) {
+                    return new int[] {i + 1, line, lineStart};
+                }
+                if (i + 2 < n && text.charAt(i + 1) == quote && text.charAt(i + 2) == quote) {
+                    return new int[] {i + 3, line, lineStart};
+                }
+            }
+            i++;
+        }
+        return new int[] {n, line, lineStart};
+    }
+}
@@ -0,0 +1,136 @@
+package fr.inria.corese.gui.util;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import javax.swing.SwingWorker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import fr.inria.corese.gui.util.TurtleChecker.Diagnostic;
+
+/**
+ * Turtle syntax check outside the Event Dispatch Thread. Diagnostics are sent to the marker
+ * consumer and listed in the display consumer as they are found. When the document has no error,
+ * the action, if any, is run in background and the success message is displayed.
+ */
+public class TurtleWorker extends SwingWorker<Integer, Diagnostic> {
+
+    private static final Logger logger = LogManager.getLogger(TurtleWorker.class.getName());
+    // diagnostics listed in the display, all of them are marked
+    static final int DISPLAY = GuiOptions.intValue("turtle.errors", 1000);
+
+    /** Background action on a valid document, e.g. load it */
+    public interface Action {
+        void run(String document) throws Exception;
+    }
+
+    private final TurtleChecker checker;
+    private final String document;
+    private final Action action;
+    private final String success;
+    private final Consumer<Diagnostic> marker;
+    private final Consumer<String> display;
+    private final StringBuilder messages = new StringBuilder();
+    // error count, set when done, as chunks may be processed after done
+    private String footer = "";
+    private int displayed = 0;
+    // clear previous markers when the first new one arrives, rather than at start
+    private Runnable clear;
+    private long time;
+
+    public TurtleWorker(
+            String document,
+            Action action,
+            String success,
+            Consumer<Diagnostic> marker,
+            Consumer<String> display) {
+        this(new TurtleChecker(), document, action, success, marker, display);
+    }
+
+    /** The checker caches statement results: reuse it to check successive versions */
+    public TurtleWorker(
+            TurtleChecker checker,
+            String document,
+            Action action,
+            String success,
+            Consumer<Diagnostic> marker,
+            Consumer<String> display) {
+        this.checker = checker;
+        this.document = document;
+        this.action = action;
+        this.success = success;
+        this.marker = marker;
+        this.display = display;
+    }
+
+    @Override
+    protected Integer doInBackground() throws Exception {
+        time = System.currentTimeMillis();
+        int errors = checker.check(document, diagnostic -> publish(diagnostic), this::isCancelled);
+        if (errors == 0 && action != null && !isCancelled()) {
+            action.run(document);
+        }
+        return errors;
+    }
+
+    @Override
+    protected void process(List<Diagnostic> chunks) {
+        if (isCancelled()) {
+            return;
+        }
+        clear();
+        for (Diagnostic diagnostic : chunks) {
+            marker.accept(diagnostic);
+            if (displayed++ < DISPLAY) {
+                messages.append(diagnostic).append('\n');
+            }
+        }
+        show();
+    }
+
+    public void setClear(Runnable clear) {
+        this.clear = clear;
+    }
+
+    void clear() {
+        if (clear != null) {
+            clear.run();
+            clear = null;
+        }
+    }
+
+    void show() {
+        display.accept(messages + footer);
+    }
+
+    @Override
+    protected void done() {
+        try {
+            int errors = get();
+            logger.debug(
+                    String.format(
+                            "Turtle check: %,d error(s) in %.3f s",
+                            errors, (System.currentTimeMillis() - time) / 1000.0));
+            if (errors == 0) {
+                clear();
+                display.accept(success);
+            } else {
+                footer =
+                        String.format(
+                                "%s%,d syntax error(s)", errors > DISPLAY ? "…\n" : "", errors);
+                show();
+            }
+        } catch (CancellationException ex) {
+            // a new check replaces this one
+        } catch (ExecutionException ex) {
+            logger.error("Turtle load", ex.getCause());
+            display.accept("Error : " + ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}